@@ -3,7 +3,11 @@ package org.example;
 import org.example.controller.MainController;
 import org.example.model.APIClient;
 import org.example.model.AppModel;
+import org.example.model.cache.DiskCache;
+import org.example.model.cache.QueryTrie;
+import org.example.model.cache.TrackIndex;
 import org.example.model.repository.JsonSessionRepository;
+import org.example.service.GenerationCallbackServer;
 import org.example.service.MusicServiceFactory;
 import org.example.service.SessionPersistenceService;
 import org.example.service.SpotifyService;
@@ -11,6 +15,10 @@ import org.example.service.SunoService;
 import org.example.view.MainFrame;
 
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
 
 public class Main {
 
@@ -19,10 +27,11 @@ public class Main {
             APIClient apiClient = APIClient.getInstance();
 
             SpotifyService spotifyService = new SpotifyService(apiClient);
-            SunoService sunoService = new SunoService(apiClient);
+            attachStoresInBackground(spotifyService, apiClient.getConfig());
+            SunoService sunoService = new SunoService(apiClient, openCallbackServer(apiClient.getConfig()));
 
             MusicServiceFactory factory =
-                    new MusicServiceFactory(spotifyService, sunoService);
+                    new MusicServiceFactory(spotifyService, sunoService, apiClient.getConfig());
 
             AppModel model = new AppModel();
 
@@ -30,12 +39,148 @@ public class Main {
             SessionPersistenceService sessionService =
                     new SessionPersistenceService(repo);
 
-            MainController controller =
-                    new MainController(model, factory, spotifyService, sunoService, sessionService);
+            boolean suggestionsEnabled = Boolean.parseBoolean(
+                    apiClient.getConfig().getProperty("suggestions.enabled", "true").trim());
+            MainController controller = new MainController(model, factory, spotifyService, sunoService,
+                    sessionService, suggestionsEnabled ? new QueryTrie() : null);
+            controller.loadSuggestions(() -> openSuggestions(apiClient.getConfig()));
+            controller.setLiveSearch(
+                    intProperty(apiClient.getConfig(), "search.live.debounceMs", MainController.DEFAULT_LIVE_SEARCH_DEBOUNCE_MS),
+                    intProperty(apiClient.getConfig(), "search.live.minChars", MainController.DEFAULT_LIVE_SEARCH_MIN_CHARS));
 
             MainFrame frame = new MainFrame(controller);
             controller.addListener(frame);
             frame.setVisible(true);
         });
     }
+
+    private static int intProperty(Properties config, String key, int defaultValue) {
+        try {
+            return Integer.parseInt(config.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Starts the MusicAPI completion callback receiver (suno.callback.*), or
+     * returns null when it is disabled or cannot bind - generation then just
+     * polls as usual.
+     */
+    private static GenerationCallbackServer openCallbackServer(Properties config) {
+        if (!Boolean.parseBoolean(config.getProperty("suno.callback.enabled", "false").trim())) {
+            return null;
+        }
+        try {
+            GenerationCallbackServer server = GenerationCallbackServer.start(
+                    config.getProperty("suno.callback.bindHost", "127.0.0.1").trim(),
+                    intProperty(config, "suno.callback.port", 8765),
+                    config.getProperty("suno.callback.path", "/musicapi/callback"),
+                    config.getProperty("suno.callback.publicUrl", ""));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "generation-callbacks-stop"));
+            return server;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Generation callbacks disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the disk cache and track index on a background thread - both read
+     * everything they hold at open - and attaches each to the service once
+     * ready. Until then searches go to the network and tracks are indexed in
+     * the service's memory-only index, whose tracks move into the persisted
+     * one when it is attached.
+     */
+    private static void attachStoresInBackground(SpotifyService spotifyService, Properties config) {
+        Thread loader = new Thread(() -> {
+            spotifyService.setDiskCache(openDiskCache(config));
+            if (spotifyService.getTrackIndex() != null) {
+                spotifyService.setTrackIndex(openTrackIndex(config));
+            }
+        }, "store-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Opens the persistent search cache (spotify.diskCache.*), or returns null
+     * when it is disabled or cannot be opened - the app then just runs without it.
+     */
+    private static DiskCache openDiskCache(Properties config) {
+        if (!Boolean.parseBoolean(config.getProperty("spotify.diskCache.enabled", "true"))) {
+            return null;
+        }
+        String dir = config.getProperty("spotify.diskCache.dir", "").trim();
+        Path path = dir.isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".musemix", "search-cache")
+                : Paths.get(dir);
+        try {
+            DiskCache cache = new DiskCache(path,
+                    Integer.parseInt(config.getProperty("spotify.diskCache.segmentBytes", "8388608").trim()),
+                    Integer.parseInt(config.getProperty("spotify.diskCache.maxSegments", "8").trim()),
+                    Long.parseLong(config.getProperty("spotify.diskCache.compactionIntervalMs", "300000").trim()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    cache.close();
+                } catch (IOException ignored) {
+                    // exiting anyway
+                }
+            }, "disk-cache-close"));
+            return cache;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Search disk cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads the offline track index from spotify.index.file and saves it again
+     * on exit. If the file cannot be read, a memory-only index is used.
+     */
+    private static TrackIndex openTrackIndex(Properties config) {
+        String file = config.getProperty("spotify.index.file", "").trim();
+        Path path = file.isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".musemix", "track-index.bin")
+                : Paths.get(file);
+        try {
+            TrackIndex index = TrackIndex.open(path);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    index.save();
+                } catch (IOException e) {
+                    System.err.println("Could not save track index: " + e.getMessage());
+                }
+            }, "track-index-save"));
+            return index;
+        } catch (IOException e) {
+            System.err.println("Track index not persisted: " + e.getMessage());
+            return new TrackIndex();
+        }
+    }
+
+    /**
+     * Loads the typeahead trie from suggestions.file and saves it again on
+     * exit. Runs on the controller's suggestion thread, not the EDT.
+     */
+    private static QueryTrie openSuggestions(Properties config) {
+        String file = config.getProperty("suggestions.file", "").trim();
+        Path path = file.isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".musemix", "suggestions.bin")
+                : Paths.get(file);
+        try {
+            QueryTrie trie = QueryTrie.open(path);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    trie.save();
+                } catch (IOException e) {
+                    System.err.println("Could not save suggestions: " + e.getMessage());
+                }
+            }, "suggestions-save"));
+            return trie;
+        } catch (IOException e) {
+            System.err.println("Suggestions not persisted: " + e.getMessage());
+            return new QueryTrie();
+        }
+    }
 }
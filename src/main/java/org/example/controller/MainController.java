@@ -1,10 +1,12 @@
 package org.example.controller;
 
 import org.example.model.*;
+import org.example.model.cache.QueryTrie;
 import org.example.model.domain.GenerationResult;
 import org.example.model.domain.Session;
 import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
+import org.example.model.http.ServiceUnavailableException;
 import org.example.model.strategy.MusicGenerationStrategy;
 import org.example.model.strategy.RecommendationStrategy;
 import org.example.service.MusicServiceFactory;
@@ -18,6 +20,11 @@ import javax.swing.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class MainController extends MusicEventSource {
 
@@ -27,31 +34,187 @@ public class MainController extends MusicEventSource {
     private final SunoService sunoService;
     private final SessionPersistenceService sessionPersistenceService;
     private javax.swing.SwingWorker<?, ?> currentWorker;
+    // A running generation holds no thread: it is a future completed by the service's poller
+    private CompletableFuture<GenerationResult> currentGeneration;
+    // Cancels the HTTP calls and poll timers behind currentWorker / currentGeneration / recommendationWorker
+    private CancellationToken currentCancellation = CancellationToken.NONE;
+    private CancellationToken recommendationCancellation = CancellationToken.NONE;
+    // The latest recommendation search; a newer one cancels it instead of running alongside
+    private javax.swing.SwingWorker<?, ?> recommendationWorker;
+    // Bumped per recommendation request so late results and refreshes of an older one are dropped
+    private int recommendationRequestId;
+
+    // Live search: every edit restarts this one-shot timer, so a search starts once typing pauses
+    public static final int DEFAULT_LIVE_SEARCH_DEBOUNCE_MS = 350;
+    public static final int DEFAULT_LIVE_SEARCH_MIN_CHARS = 3;
+    private final Timer liveSearchTimer;
+    private int liveSearchMinChars = DEFAULT_LIVE_SEARCH_MIN_CHARS;
+    private Runnable pendingLiveSearch;
+
+    // Typeahead: queries the user ran weigh more than artist names that merely showed up in results
+    private static final int SUGGESTION_LIMIT = 8;
+    private static final long QUERY_WEIGHT = 3;
+    private static final long RESULT_ARTIST_WEIGHT = 1;
+    // swapped only on suggestionExecutor, so completions and records queued after a load use the loaded trie
+    private volatile QueryTrie suggestions;
+    private final ExecutorService suggestionExecutor;
+    // Bumped per keystroke so completions for an older prefix are dropped
+    private int suggestionRequestId;
 
     public MainController(AppModel model,
                           MusicServiceFactory factory,
                           SpotifyService spotifyService,
                           SunoService sunoService,
                           SessionPersistenceService sessionPersistenceService) {
+        this(model, factory, spotifyService, sunoService, sessionPersistenceService, new QueryTrie());
+    }
+
+    /** {@code suggestions} backs the query typeahead; null turns it off. */
+    public MainController(AppModel model,
+                          MusicServiceFactory factory,
+                          SpotifyService spotifyService,
+                          SunoService sunoService,
+                          SessionPersistenceService sessionPersistenceService,
+                          QueryTrie suggestions) {
         this.model = model;
         this.factory = factory;
         this.spotifyService = spotifyService;
         this.sunoService = sunoService;
         this.sessionPersistenceService = sessionPersistenceService;
+        this.suggestions = suggestions;
+        this.suggestionExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "query-suggestions");
+            t.setDaemon(true);
+            return t;
+        });
+        this.liveSearchTimer = new Timer(DEFAULT_LIVE_SEARCH_DEBOUNCE_MS, e -> {
+            Runnable search = pendingLiveSearch;
+            pendingLiveSearch = null;
+            if (search != null) {
+                search.run();
+            }
+        });
+        this.liveSearchTimer.setRepeats(false);
+    }
+
+    /** Idle time before a live search starts, and the shortest text worth searching for. */
+    public void setLiveSearch(int debounceMs, int minChars) {
+        liveSearchTimer.setInitialDelay(Math.max(0, debounceMs));
+        liveSearchMinChars = Math.max(1, minChars);
+    }
+
+    /**
+     * As-you-type search, called on every edit: the search runs only once the
+     * user has paused for the debounce delay, and then supersedes (cancels)
+     * any search still running for an older prefix. Live searches are not
+     * recorded for the typeahead: they are mostly half-typed prefixes.
+     */
+    public void requestLiveRecommendationsFromUI(UserQuery query, String modeLabel) {
+        String text = query.getText() == null ? "" : query.getText().trim();
+        if (text.length() < liveSearchMinChars) {
+            liveSearchTimer.stop();
+            pendingLiveSearch = null;
+            return;
+        }
+        RecommendationMode mode = modeFor(modeLabel);
+        pendingLiveSearch = () -> startRecommendations(query, mode, false);
+        liveSearchTimer.restart();
+    }
+
+    /**
+     * Completions for what the user has typed so far, looked up off the EDT.
+     * {@code onSuggestions} runs on the EDT, and only for the latest prefix.
+     */
+    public void requestSuggestions(String prefix, Consumer<List<String>> onSuggestions) {
+        int requestId = ++suggestionRequestId;
+        if (suggestions == null || prefix == null || prefix.isBlank()) {
+            onSuggestions.accept(List.of());
+            return;
+        }
+        suggestionExecutor.execute(() -> {
+            List<String> completions = suggestions.complete(prefix, SUGGESTION_LIMIT);
+            SwingUtilities.invokeLater(() -> {
+                if (requestId == suggestionRequestId) {
+                    onSuggestions.accept(completions);
+                }
+            });
+        });
+    }
+
+    /**
+     * Replace the typeahead trie with the one {@code loader} returns, loading
+     * it on the suggestion thread so the EDT never waits for the file.
+     * Suggestions must be enabled (a non-null trie given at construction);
+     * a null result keeps the current trie.
+     */
+    public void loadSuggestions(Supplier<QueryTrie> loader) {
+        if (suggestions == null) {
+            return;
+        }
+        suggestionExecutor.execute(() -> {
+            QueryTrie loaded = loader.get();
+            if (loaded != null) {
+                suggestions = loaded;
+            }
+        });
+    }
+
+    /** The search field only ever fills in the query text, so that is what is suggested back. */
+    private void recordQuery(UserQuery query) {
+        if (suggestions == null || query == null) {
+            return;
+        }
+        suggestionExecutor.execute(() -> suggestions.record(query.getText(), QUERY_WEIGHT));
+    }
+
+    private void recordResultArtists(List<Track> tracks) {
+        if (suggestions == null || tracks == null) {
+            return;
+        }
+        suggestionExecutor.execute(() -> {
+            for (Track t : tracks) {
+                suggestions.record(t.getArtist(), RESULT_ARTIST_WEIGHT);
+            }
+        });
     }
 
+    /** An explicit search (button or Enter); its query is remembered for the typeahead. */
     public void requestRecommendations(UserQuery query, RecommendationMode mode) {
+        startRecommendations(query, mode, true);
+    }
+
+    private void startRecommendations(UserQuery query, RecommendationMode mode, boolean explicit) {
         RecommendationStrategy strategy = factory.createRecommendationStrategy(mode);
+        // an explicit search overtakes a pending live one
+        liveSearchTimer.stop();
+        pendingLiveSearch = null;
+        if (recommendationWorker != null && !recommendationWorker.isDone()) {
+            // its result would be dropped anyway; stop it spending upstream quota
+            recommendationCancellation.cancel();
+            recommendationWorker.cancel(true);
+        }
+        CancellationToken cancellation = new CancellationToken();
+        int requestId = ++recommendationRequestId;
+        if (explicit) {
+            recordQuery(query);
+        }
         fireEvent(MusicEvent.of(EventType.RECOMMENDATION_STARTED, null));
 
-        currentWorker = new SwingWorker<List<Track>, Void>() {
+        recommendationWorker = new SwingWorker<List<Track>, Void>() {
             @Override
             protected List<Track> doInBackground() throws Exception {
-                return strategy.getRecommendations(query);
+                // A cached list may come back at once; a different refreshed one follows as a second event
+                return strategy.getRecommendations(query,
+                        refreshed -> SwingUtilities.invokeLater(() -> applyRefresh(requestId, query, refreshed)),
+                        cancellation);
             }
 
             @Override
             protected void done() {
+                if (requestId != recommendationRequestId) {
+                    // superseded by a newer search, which reports for both
+                    return;
+                }
                 if (isCancelled()) {
                     fireEvent(MusicEvent.of(EventType.RECOMMENDATION_CANCELLED, null));
                     return;
@@ -60,50 +223,53 @@ public class MainController extends MusicEventSource {
                     List<Track> tracks = get();
                     model.setCurrentTracks(tracks);
                     model.setLastQuery(query);
+                    recordResultArtists(tracks);
                     fireEvent(MusicEvent.of(EventType.RECOMMENDATION_COMPLETED, tracks));
                 } catch (Exception e) {
-                    fireEvent(MusicEvent.error(e));
+                    fireFailure(e);
                 }
             }
         };
-        currentWorker.execute();
+        recommendationCancellation = cancellation;
+        currentWorker = recommendationWorker;
+        currentGeneration = null;
+        currentCancellation = cancellation;
+        recommendationWorker.execute();
+    }
+
+    /** Follow-up results from a background refresh, if that request is still the latest one. */
+    private void applyRefresh(int requestId, UserQuery query, List<Track> tracks) {
+        if (requestId != recommendationRequestId) {
+            return;
+        }
+        model.setCurrentTracks(tracks);
+        model.setLastQuery(query);
+        fireEvent(MusicEvent.of(EventType.RECOMMENDATION_COMPLETED, tracks));
     }
 
     public void requestGeneration(UserQuery query, GenerationMode mode) {
         MusicGenerationStrategy strategy = factory.createGenerationStrategy(mode);
+        CancellationToken cancellation = new CancellationToken();
         fireEvent(MusicEvent.of(EventType.GENERATION_STARTED, null));
 
-        currentWorker = new SwingWorker<GenerationResult, Void>() {
-            @Override
-            protected GenerationResult doInBackground() throws Exception {
-                Thread.sleep(10_000);
-                if (isCancelled()) {
-                    return null;
-                }
-                return strategy.generate(query);
-            }
+        CompletableFuture<GenerationResult> generation = strategy.generateAsync(query, cancellation);
+        currentWorker = null;
+        currentGeneration = generation;
+        currentCancellation = cancellation;
 
-            @Override
-            protected void done() {
-                try {
-                    if (isCancelled()) {
-                        return;
-                    }
-
-                    GenerationResult result = get();
-                    if (result != null) {
-                        model.setLastGenerationResult(result);
-                        fireEvent(MusicEvent.of(EventType.GENERATION_COMPLETED, result));
-                    } else {
-                        fireEvent(MusicEvent.error(new IllegalStateException("Generation cancelled or no result")));
-                    }
-                } catch (Exception e) {
-                    fireEvent(MusicEvent.error(e));
-                }
+        generation.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation.isCancelled()) {
+                return;
             }
-        };
-
-        currentWorker.execute();
+            if (error != null) {
+                fireFailure(error);
+            } else if (result != null) {
+                model.setLastGenerationResult(result);
+                fireEvent(MusicEvent.of(EventType.GENERATION_COMPLETED, result));
+            } else {
+                fireEvent(MusicEvent.error(new IllegalStateException("Generation cancelled or no result")));
+            }
+        }));
     }
 
     public void saveCurrentSession(File file) {
@@ -176,17 +342,22 @@ public class MainController extends MusicEventSource {
 
     // Called by MainFrame with the combo-box label
     public void requestRecommendationsFromUI(UserQuery query, String modeLabel) {
+        requestRecommendations(query, modeFor(modeLabel));
+    }
+
+    private static RecommendationMode modeFor(String modeLabel) {
         MusicServiceFactory.RecommendationMode mode;
 
         String normalized = modeLabel == null ? "" : modeLabel.toLowerCase();
         switch (normalized) {
             case "genre" -> mode = MusicServiceFactory.RecommendationMode.GENRE;
             case "artist" -> mode = MusicServiceFactory.RecommendationMode.ARTIST;
+            case "hybrid" -> mode = MusicServiceFactory.RecommendationMode.HYBRID;
+            case "local" -> mode = MusicServiceFactory.RecommendationMode.LOCAL;
             case "mood"  -> mode = MusicServiceFactory.RecommendationMode.MOOD;
             default -> mode = MusicServiceFactory.RecommendationMode.MOOD;
         }
-
-        requestRecommendations(query, mode);
+        return mode;
     }
 
     public void requestGenerationFromUI(UserQuery query) {
@@ -194,15 +365,39 @@ public class MainController extends MusicEventSource {
         requestGeneration(query, MusicServiceFactory.GenerationMode.INSTRUMENTAL);
     }
 
-    /** Cancel the currently running SwingWorker, if any. */
+    /** Cancel the currently running operation, if any. */
     public void cancelCurrentOperation() {
-        if (currentWorker != null && !currentWorker.isDone()) {
+        if (currentGeneration != null && !currentGeneration.isDone()) {
+            // cancels the create request or drops the task from the poller
+            currentCancellation.cancel();
+            currentGeneration.cancel(true);
+
+            fireEvent(MusicEvent.of(EventType.GENERATION_CANCELLED, null));
+        } else if (currentWorker != null && !currentWorker.isDone()) {
+            // the token aborts in-flight requests and poll timers; cancel(true) stops the worker itself
+            currentCancellation.cancel();
             currentWorker.cancel(true);
 
             fireEvent(MusicEvent.of(EventType.GENERATION_CANCELLED, null));
         }
     }
 
+    /**
+     * Report a background failure. An open circuit breaker gets a short
+     * "service unavailable" message instead of a stack-trace-ish one.
+     */
+    private void fireFailure(Throwable e) {
+        Throwable cause = APIClient.unwrap(e);
+        if (cause instanceof ServiceUnavailableException unavailable) {
+            long seconds = Math.max(1, (unavailable.getRetryAfterMs() + 999) / 1000);
+            fireEvent(MusicEvent.of(EventType.ERROR,
+                    "Service unavailable: " + unavailable.getHost()
+                            + " is not responding. Please try again in about " + seconds + "s."));
+            return;
+        }
+        fireEvent(MusicEvent.error(cause));
+    }
+
     /** Open the most recently generated audio URL in the browser. */
     public void openLastGeneratedAudio() {
         GenerationResult result = model.getLastGenerationResult();
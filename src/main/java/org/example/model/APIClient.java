@@ -1,5 +1,19 @@
 package org.example.model;
 
+import org.example.model.http.AccessTokenManager;
+import org.example.model.http.CircuitBreaker;
+import org.example.model.http.CompressionMetrics;
+import org.example.model.http.DecompressingBodyHandlers;
+import org.example.model.http.HedgePolicy;
+import org.example.model.http.RetryBudget;
+import org.example.model.http.RetryMetrics;
+import org.example.model.http.RetryPolicy;
+import org.example.model.http.RateLimitExceededException;
+import org.example.model.http.RevalidationMetrics;
+import org.example.model.http.TokenBucketRateLimiter;
+import org.example.model.http.Validators;
+
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -10,8 +24,26 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Properties;
 import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class APIClient {
 
@@ -20,17 +52,107 @@ public class APIClient {
     private final HttpClient httpClient;
     private final Properties config;
 
-    // Spotify token cache
-    private String spotifyAccessToken;
-    private Instant spotifyTokenExpiry; // epoch time when it expires
+    private static final String DEFAULT_SPOTIFY_TOKEN_URL = "https://accounts.spotify.com/api/token";
+
+    // Spotify token cache (lock-free reads, single in-flight refresh)
+    private final AccessTokenManager spotifyTokens;
+
+    // Retry behavior for the *WithRetry helpers (swappable at runtime)
+    private volatile RetryPolicy retryPolicy;
+
+    // Client-side pacing per upstream host (hosts without config are unlimited)
+    private final Map<String, TokenBucketRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    // Transparent gzip/deflate for response bodies
+    private final boolean compressionEnabled;
+    private final CompressionMetrics compressionMetrics = new CompressionMetrics();
+
+    // Backup requests for slow idempotent GETs
+    private final boolean hedgingEnabled;
+    private final HedgePolicy hedgePolicy;
+
+    // Fail fast while an upstream is down (created lazily per host)
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final boolean circuitBreakerEnabled;
+
+    // Conditional GETs (If-None-Match / If-Modified-Since) and the 304s they earn
+    private final RevalidationMetrics revalidationMetrics = new RevalidationMetrics();
 
     private APIClient() {
-        this.config = loadConfig();
+        this(loadConfig());
+    }
+
+    /** A client configured from {@code config} instead of config.properties (tests). */
+    APIClient(Properties config) {
+        this.config = config;
         int timeoutMs = getInt("api.timeout.ms", 8000);
 
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofMillis(timeoutMs))
                 .build();
+
+        int refreshAheadSec = getInt("spotify.token.refreshAheadSeconds", 60);
+        this.spotifyTokens = new AccessTokenManager(this::fetchSpotifyToken,
+                Duration.ofSeconds(refreshAheadSec));
+
+        this.retryPolicy = createRetryPolicy();
+
+        registerRateLimiter("spotify",
+                config.getProperty("spotify.apiBaseUrl", "https://api.spotify.com/v1"));
+        registerRateLimiter("suno", config.getProperty("suno.baseUrl"));
+
+        this.compressionEnabled = Boolean.parseBoolean(
+                config.getProperty("api.compression.enabled", "true").trim());
+        this.hedgingEnabled = Boolean.parseBoolean(
+                config.getProperty("api.hedge.enabled", "true").trim());
+        this.hedgePolicy = new HedgePolicy(
+                getDouble("api.hedge.percentile", 0.95),
+                getInt("api.hedge.minDelayMs", 50),
+                getInt("api.hedge.minSamples", 20),
+                getInt("api.hedge.windowMs", 60_000),
+                new RetryBudget(getDouble("api.hedge.maxRatio", 0.05), getInt("api.hedge.maxTokens", 5)));
+        this.circuitBreakerEnabled = Boolean.parseBoolean(
+                config.getProperty("api.circuit.enabled", "true").trim());
+    }
+
+    /**
+     * Create a limiter for the host of {@code baseUrl} from
+     * {@code <prefix>.rateLimit.rps} / {@code <prefix>.rateLimit.burst}.
+     */
+    private void registerRateLimiter(String prefix, String baseUrl) {
+        double rps = getDouble(prefix + ".rateLimit.rps", 0);
+        if (rps <= 0 || baseUrl == null) {
+            return;
+        }
+        String host = URI.create(baseUrl.trim()).getHost();
+        if (host == null) {
+            return;
+        }
+        boolean failFast = "failFast".equalsIgnoreCase(config.getProperty("api.rateLimit.mode", "queue").trim());
+        long maxWaitMs = failFast ? 0 : getInt("api.rateLimit.maxWaitMs", 5000);
+        int burst = getInt(prefix + ".rateLimit.burst", (int) Math.max(1, Math.ceil(rps)));
+        rateLimiters.put(host, new TokenBucketRateLimiter(host, rps, burst, maxWaitMs));
+    }
+
+    private RetryPolicy createRetryPolicy() {
+        Set<Integer> statuses = new HashSet<>();
+        for (String part : config.getProperty("api.retry.statuses", "429,500,502,503,504").split(",")) {
+            try {
+                statuses.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException ignored) {
+                // skip bad entries
+            }
+        }
+        RetryBudget budget = new RetryBudget(
+                getDouble("api.retryBudget.ratio", 0.2),
+                getInt("api.retryBudget.maxTokens", 10));
+        return new RetryPolicy(
+                getInt("api.maxRetries", 2),
+                getInt("api.backoff.ms", 1000),
+                getInt("api.backoff.maxMs", 10_000),
+                getInt("api.retry.maxRetryAfterMs", 30_000),
+                statuses,
+                budget);
     }
 
     private int getInt(String key, int defaultValue) {
@@ -45,6 +167,18 @@ public class APIClient {
         }
     }
 
+    private double getDouble(String key, double defaultValue) {
+        String raw = config.getProperty(key);
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(raw.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public static synchronized APIClient getInstance() {
         if (instance == null) {
             instance = new APIClient();
@@ -52,7 +186,7 @@ public class APIClient {
         return instance;
     }
 
-    private Properties loadConfig() {
+    private static Properties loadConfig() {
         Properties properties = new Properties();
         try (InputStream in = APIClient.class.getClassLoader()
                 .getResourceAsStream("config.properties")) {
@@ -76,39 +210,61 @@ public class APIClient {
         return httpClient;
     }
 
-    /* ------------------------------------------------------------------
-       Spotify token helpers (Client Credentials Flow)
-       ------------------------------------------------------------------ */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
 
-    public synchronized String getOrRefreshSpotifyToken() throws IOException, InterruptedException {
-        if (spotifyAccessToken != null && Instant.now().isBefore(spotifyTokenExpiry)) {
-            return spotifyAccessToken;
-        }
+    /** Swap the retry policy used by the *WithRetry helpers. */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy");
+    }
 
-        // otherwise fetch a new one
-        String clientId = config.getProperty("spotify.clientId");
-        String clientSecret = config.getProperty("spotify.clientSecret");
+    public RetryMetrics getRetryMetrics() {
+        return retryPolicy.getMetrics();
+    }
 
-        String credentials = clientId + ":" + clientSecret;
-        String basic = Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(config.getProperty("spotify.tokenUrl")))
-                .header("Authorization", "Basic " + basic)
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials"))
-                .build();
+    public RevalidationMetrics getRevalidationMetrics() {
+        return revalidationMetrics;
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new IOException("Spotify token request failed: HTTP "
-                    + response.statusCode() + " – " + response.body());
-        }
-        requestSpotifyToken();
-        return spotifyAccessToken;
+    public CompressionMetrics getCompressionMetrics() {
+        return compressionMetrics;
+    }
+
+    /** Circuit breakers keyed by host (only hosts we have called appear). */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    /** Rate limiters keyed by host, for metrics (wait histograms, rejections). */
+    public Map<String, TokenBucketRateLimiter> getRateLimiters() {
+        return Collections.unmodifiableMap(rateLimiters);
+    }
+
+    /* ------------------------------------------------------------------
+       Spotify token helpers (Client Credentials Flow)
+       ------------------------------------------------------------------ */
+
+    /**
+     * Returns a cached Spotify token. Reads are lock-free; when the token is
+     * missing or expired, all callers share a single refresh request.
+     */
+    public String getOrRefreshSpotifyToken() throws IOException, InterruptedException {
+        return spotifyTokens.getToken();
     }
 
-    private void requestSpotifyToken() throws IOException, InterruptedException {
+    /**
+     * Drop a token that Spotify rejected with 401 so the next call fetches a new one.
+     */
+    public void invalidateSpotifyToken(String rejectedToken) {
+        spotifyTokens.invalidate(rejectedToken);
+    }
+
+    private AccessTokenManager.AccessToken fetchSpotifyToken() throws IOException, InterruptedException {
         String clientId = config.getProperty("spotify.clientId");
         String clientSecret = config.getProperty("spotify.clientSecret");
 
@@ -119,9 +275,10 @@ public class APIClient {
         String basicAuth = Base64.getEncoder()
                 .encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
 
+        String tokenUrl = config.getProperty("spotify.tokenUrl", DEFAULT_SPOTIFY_TOKEN_URL);
         String body = "grant_type=client_credentials";
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://accounts.spotify.com/api/token"))
+                .uri(URI.create(tokenUrl))
                 .header("Authorization", "Basic " + basicAuth)
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .POST(HttpRequest.BodyPublishers.ofString(body))
@@ -145,8 +302,7 @@ public class APIClient {
             throw new IOException("Could not parse Spotify token response: " + json);
         }
 
-        this.spotifyAccessToken = token;
-        this.spotifyTokenExpiry = Instant.now().plusSeconds(expiresIn);
+        return new AccessTokenManager.AccessToken(token, Instant.now().plusSeconds(expiresIn));
     }
 
     // Very naive JSON extractors – good enough for this limited use.
@@ -194,45 +350,175 @@ public class APIClient {
 
     public HttpResponse<String> get(String url, String authHeader)
             throws IOException, InterruptedException {
+        return send(buildGet(url, authHeader), stringHandler());
+    }
+
+    public HttpResponse<String> postForm(String url, String formBody, String authHeader)
+            throws IOException, InterruptedException {
+        return send(buildPostForm(url, formBody, authHeader), stringHandler());
+    }
+
+    public static String urlEncode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public HttpResponse<String> postJson(String url, String jsonBody, String authToken)
+            throws IOException, InterruptedException {
+        return send(buildPostJson(url, jsonBody, authToken), stringHandler());
+    }
+
+    public HttpResponse<String> getWithRetry(String url, String authHeader)
+            throws IOException, InterruptedException {
+        return sendWithRetry(buildGet(url, authHeader), stringHandler());
+    }
+
+    public HttpResponse<String> postJsonWithRetry(String url, String jsonBody, String apiKey)
+            throws IOException, InterruptedException {
+        return sendWithRetry(buildPostJson(url, jsonBody, apiKey), stringHandler());
+    }
+
+    /**
+     * Like {@link #getWithRetry(String, String)} but hands back the body as a
+     * stream, so large responses can be parsed incrementally. The caller must
+     * close the body.
+     */
+    public HttpResponse<InputStream> getStreamWithRetry(String url, String authHeader)
+            throws IOException, InterruptedException {
+        return sendWithRetry(buildGet(url, authHeader), streamHandler());
+    }
+
+    /** Blocking form of {@link #getStreamHedgedAsync(String, String)}. */
+    public HttpResponse<InputStream> getStreamHedged(String url, String authHeader)
+            throws IOException, InterruptedException {
+        if (!hedgingEnabled) {
+            return getStreamWithRetry(url, authHeader);
+        }
+        return await(getStreamHedgedAsync(url, authHeader));
+    }
+
+    /* ------------------------------------------------------------------
+       Async (non-blocking) variants
+       These never park a thread while a request is in flight or while
+       waiting between retries, so many calls can share a few threads.
+       ------------------------------------------------------------------ */
+
+    public CompletableFuture<String> getSpotifyTokenAsync() {
+        return spotifyTokens.getTokenAsync();
+    }
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String url, String authHeader) {
+        return sendAsync(buildGet(url, authHeader), stringHandler());
+    }
+
+    public CompletableFuture<HttpResponse<String>> postFormAsync(String url, String formBody,
+                                                                 String authHeader) {
+        return sendAsync(buildPostForm(url, formBody, authHeader), stringHandler());
+    }
+
+    public CompletableFuture<HttpResponse<String>> postJsonAsync(String url, String jsonBody,
+                                                                 String authToken) {
+        return sendAsync(buildPostJson(url, jsonBody, authToken), stringHandler());
+    }
+
+    public CompletableFuture<HttpResponse<String>> getWithRetryAsync(String url, String authHeader) {
+        return sendWithRetryAsync(buildGet(url, authHeader), stringHandler());
+    }
+
+    public CompletableFuture<HttpResponse<InputStream>> getStreamWithRetryAsync(String url, String authHeader) {
+        return sendWithRetryAsync(buildGet(url, authHeader), streamHandler());
+    }
+
+    /**
+     * Idempotent GET with retries where a slow attempt is hedged: if it has not
+     * answered within the host's recent p-th percentile latency, an identical
+     * request is sent and the first answer wins (see {@link HedgePolicy}).
+     * Falls back to a plain retrying GET when hedging is disabled.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> getStreamHedgedAsync(String url, String authHeader) {
+        return sendWithRetryAsync(buildGet(url, authHeader), streamHandler(), hedgingEnabled);
+    }
+
+    /**
+     * Conditional form of {@link #getStreamHedgedAsync(String, String)}: sends
+     * If-None-Match / If-Modified-Since from {@code validators}, so an unchanged
+     * resource comes back as an empty 304 the caller answers from its cache.
+     * 304s are counted in {@link #getRevalidationMetrics()}.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> getStreamHedgedAsync(String url, String authHeader,
+                                                                            Validators validators) {
+        if (validators == null || !validators.canRevalidate()) {
+            return getStreamHedgedAsync(url, authHeader);
+        }
+        HttpRequest request = validators.applyTo(getBuilder(url, authHeader)).build();
+        revalidationMetrics.recordConditionalRequest();
+
+        CompletableFuture<HttpResponse<InputStream>> sent =
+                sendWithRetryAsync(request, streamHandler(), hedgingEnabled);
+        sent.thenAccept(response -> {
+            if (response.statusCode() == 304) {
+                revalidationMetrics.recordNotModified(validators.getBodyBytes());
+            }
+        });
+        return sent;
+    }
+
+    public CompletableFuture<HttpResponse<String>> postJsonWithRetryAsync(String url, String jsonBody,
+                                                                          String apiKey) {
+        return sendWithRetryAsync(buildPostJson(url, jsonBody, apiKey), stringHandler());
+    }
+
+    /* ------------------------------------------------------------------
+       Request building + sending
+       ------------------------------------------------------------------ */
+
+    private HttpRequest.Builder newRequest(String url) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(url));
+        if (compressionEnabled) {
+            builder.header("Accept-Encoding", DecompressingBodyHandlers.ACCEPT_ENCODING);
+        }
+        return builder;
+    }
+
+    private HttpResponse.BodyHandler<String> stringHandler() {
+        return compressionEnabled
+                ? DecompressingBodyHandlers.ofString(compressionMetrics)
+                : HttpResponse.BodyHandlers.ofString();
+    }
 
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+    private HttpResponse.BodyHandler<InputStream> streamHandler() {
+        return compressionEnabled
+                ? DecompressingBodyHandlers.ofInputStream(compressionMetrics)
+                : HttpResponse.BodyHandlers.ofInputStream();
+    }
+
+    private HttpRequest buildGet(String url, String authHeader) {
+        return getBuilder(url, authHeader).build();
+    }
+
+    private HttpRequest.Builder getBuilder(String url, String authHeader) {
+        HttpRequest.Builder builder = newRequest(url)
                 .GET();
 
         if (authHeader != null && !authHeader.isBlank()) {
             // Use the header value as-is (e.g., "Bearer <token>")
             builder.header("Authorization", authHeader);
         }
-
-        HttpRequest request = builder.build();
-        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return builder;
     }
 
-    public HttpResponse<String> postForm(String url, String formBody, String authHeader)
-            throws IOException, InterruptedException {
-
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+    private HttpRequest buildPostForm(String url, String formBody, String authHeader) {
+        HttpRequest.Builder builder = newRequest(url)
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .POST(HttpRequest.BodyPublishers.ofString(formBody));
 
         if (authHeader != null && !authHeader.isBlank()) {
             builder.header("Authorization", authHeader);
         }
-
-        HttpRequest request = builder.build();
-        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return builder.build();
     }
 
-    public static String urlEncode(String value) {
-        return URLEncoder.encode(value, StandardCharsets.UTF_8);
-    }
-
-    public HttpResponse<String> postJson(String url, String jsonBody, String authToken)
-            throws IOException, InterruptedException {
-
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+    private HttpRequest buildPostJson(String url, String jsonBody, String authToken) {
+        HttpRequest.Builder builder = newRequest(url)
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody));
 
@@ -245,52 +531,408 @@ public class APIClient {
                 builder.header("Authorization", "Bearer " + authToken);
             }
         }
-
-        HttpRequest request = builder.build();
-        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return builder.build();
     }
 
-    public HttpResponse<String> getWithRetry(String url, String authHeader)
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
             throws IOException, InterruptedException {
+        CircuitBreaker breaker = breakerFor(request.uri());
+        if (breaker != null) {
+            breaker.acquirePermission();
+        }
 
-        int maxRetries = getInt("api.maxRetries", 2);
-        long backoffMs = getInt("api.backoff.ms", 1000);
+        long start;
+        try {
+            long waitMs = reservePermit(request.uri());
+            if (waitMs > 0) {
+                Thread.sleep(waitMs);
+            }
+            start = System.nanoTime();
+        } catch (IOException | InterruptedException e) {
+            if (breaker != null) {
+                breaker.releasePermission();
+            }
+            throw e;
+        }
 
-        IOException last = null;
+        try {
+            HttpResponse<T> response = httpClient.send(request, handler);
+            if (breaker != null) {
+                breaker.record(!isUpstreamFailure(response.statusCode()), System.nanoTime() - start);
+            }
+            return response;
+        } catch (IOException e) {
+            if (breaker != null) {
+                breaker.record(false, System.nanoTime() - start);
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            if (breaker != null) {
+                breaker.releasePermission();
+            }
+            throw e;
+        }
+    }
 
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                             HttpResponse.BodyHandler<T> handler) {
+        CircuitBreaker breaker = breakerFor(request.uri());
+        long waitMs;
+        try {
+            if (breaker != null) {
+                breaker.acquirePermission();
+            }
             try {
-                return get(url, authHeader);
-            } catch (IOException e) {
-                last = e;
-                if (attempt == maxRetries) {
-                    break;
+                waitMs = reservePermit(request.uri());
+            } catch (RateLimitExceededException e) {
+                if (breaker != null) {
+                    breaker.releasePermission();
                 }
-                Thread.sleep(backoffMs * (attempt + 1L));
+                throw e;
             }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        throw last;
+
+        if (waitMs == 0) {
+            return timedSendAsync(request, handler, breaker);
+        }
+
+        // queued by the rate limiter: send once our slot comes up, without blocking
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        // whoever flips this owns the breaker permit: the send, or a cancellation while queued
+        AtomicBoolean claimed = new AtomicBoolean();
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled() && claimed.compareAndSet(false, true) && breaker != null) {
+                // cancelled while queued: the request is never sent, free the permit now
+                breaker.releasePermission();
+            }
+        });
+        Executor later = CompletableFuture.delayedExecutor(waitMs, TimeUnit.MILLISECONDS);
+        later.execute(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                relay(timedSendAsync(request, handler, breaker), result);
+            }
+        });
+        return result;
     }
 
-    public HttpResponse<String> postJsonWithRetry(String url, String jsonBody, String apiKey)
-            throws IOException, InterruptedException {
+    /**
+     * Sends the request and records its outcome with the breaker. Cancelling
+     * the returned future cancels the underlying HTTP exchange.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> timedSendAsync(HttpRequest request,
+                                                                  HttpResponse.BodyHandler<T> handler,
+                                                                  CircuitBreaker breaker) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> exchange = httpClient.sendAsync(request, handler);
+        if (breaker == null) {
+            return exchange;
+        }
+        CompletableFuture<HttpResponse<T>> observed = exchange.whenComplete((response, error) -> {
+            if (error == null) {
+                breaker.record(!isUpstreamFailure(response.statusCode()), System.nanoTime() - start);
+            } else if (unwrap(error) instanceof CancellationException) {
+                breaker.releasePermission();
+            } else {
+                breaker.record(false, System.nanoTime() - start);
+            }
+        });
+        cancelWith(observed, exchange);
+        return observed;
+    }
 
-        int maxRetries = getInt("api.maxRetries", 2);
-        long backoffMs = getInt("api.backoff.ms", 1000);
+    /** Complete {@code target} with {@code source}'s outcome; cancelling target cancels source. */
+    private static <T> void relay(CompletableFuture<T> source, CompletableFuture<T> target) {
+        source.whenComplete((value, error) -> {
+            if (error == null) {
+                if (!target.complete(value) && value instanceof HttpResponse<?> late) {
+                    discard(late);
+                }
+            } else {
+                target.completeExceptionally(unwrap(error));
+            }
+        });
+        cancelWith(target, source);
+    }
+
+    /**
+     * When {@code dependent} is cancelled, cancel {@code source} too. Plain
+     * thenApply/thenCompose stages do not do this, so every stage between a
+     * caller and an HTTP exchange needs it for cancellation to reach the wire.
+     */
+    public static <T> CompletableFuture<T> cancelWith(CompletableFuture<T> dependent, Future<?> source) {
+        dependent.whenComplete((value, error) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
 
-        IOException last = null;
+    /** {@code source.thenApply(fn)}, where cancelling the result also cancels source. */
+    public static <T, R> CompletableFuture<R> thenApplyCancellable(CompletableFuture<T> source,
+                                                                   Function<? super T, ? extends R> fn) {
+        return cancelWith(source.thenApply(fn), source);
+    }
 
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+    /**
+     * {@code source.thenCompose(next)}, where cancelling the result cancels
+     * whichever of the two stages is still running.
+     */
+    public static <T, R> CompletableFuture<R> thenComposeCancellable(
+            CompletableFuture<T> source, Function<? super T, ? extends CompletableFuture<R>> next) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        cancelWith(result, source);
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            if (result.isDone()) {
+                // cancelled in between: do not start the next stage
+                if (value instanceof HttpResponse<?> response) {
+                    discard(response);
+                }
+                return;
+            }
+            CompletableFuture<R> stage;
             try {
-                return postJson(url, jsonBody, apiKey);
+                stage = next.apply(value);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            relay(stage, result);
+        });
+        return result;
+    }
+
+    /* ------------------------------------------------------------------
+       Hedging: send a backup copy of a slow idempotent GET
+       ------------------------------------------------------------------ */
+
+    private <T> CompletableFuture<HttpResponse<T>> sendHedgedAsync(HttpRequest request,
+                                                                   HttpResponse.BodyHandler<T> handler) {
+        String host = request.uri().getHost();
+        HedgePolicy policy = hedgePolicy;
+        policy.onRequest();
+        // the sample is the whole logical request: a slow primary that loses
+        // to its hedge still counts, so the percentile does not drift down
+        long start = System.nanoTime();
+
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<T>>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        launchAttempt(request, handler, host, policy, start, false, result, attempts, pending);
+
+        long delay = policy.hedgeDelayMs(host);
+        if (delay != HedgePolicy.NO_HEDGE) {
+            Executor later = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+            later.execute(() -> {
+                if (!result.isDone() && policy.tryAcquireHedge()) {
+                    pending.incrementAndGet();
+                    launchAttempt(request, handler, host, policy, start, true, result, attempts, pending);
+                }
+            });
+        }
+
+        // whoever wins, cancel the rest (this aborts their HTTP exchanges)
+        result.whenComplete((response, error) -> {
+            for (CompletableFuture<HttpResponse<T>> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private <T> void launchAttempt(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                   String host, HedgePolicy policy, long start, boolean isHedge,
+                                   CompletableFuture<HttpResponse<T>> result,
+                                   List<CompletableFuture<HttpResponse<T>>> attempts,
+                                   AtomicInteger pending) {
+        CompletableFuture<HttpResponse<T>> attempt = sendAsync(request, handler);
+        attempts.add(attempt);
+        if (result.isDone()) {
+            attempt.cancel(true);
+            return;
+        }
+        attempt.whenComplete((response, error) -> {
+            if (error == null) {
+                if (result.complete(response)) {
+                    policy.recordLatency(host, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    if (isHedge) {
+                        policy.recordHedgeWin();
+                    }
+                } else {
+                    discard(response); // lost the race
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                // only fail once every attempt has failed
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+    }
+
+    /** 5xx and 429 say "the upstream is struggling"; other 4xx are our own mistakes. */
+    private static boolean isUpstreamFailure(int statusCode) {
+        return statusCode >= 500 || statusCode == 429;
+    }
+
+    private CircuitBreaker breakerFor(URI uri) {
+        String host = uri.getHost();
+        if (host == null || !circuitBreakerEnabled) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(h,
+                getInt("api.circuit.windowSize", 20),
+                getInt("api.circuit.minimumCalls", 10),
+                getDouble("api.circuit.failureRateThreshold", 0.5),
+                getDouble("api.circuit.slowCallRateThreshold", 0.8),
+                getInt("api.circuit.slowCallMs", 5000),
+                getInt("api.circuit.openMs", 30_000),
+                getInt("api.circuit.halfOpenCalls", 2)));
+    }
+
+    /** Take a permit from the host's limiter (if any); returns how long to wait. */
+    private long reservePermit(URI uri) throws RateLimitExceededException {
+        TokenBucketRateLimiter limiter = uri.getHost() != null ? rateLimiters.get(uri.getHost()) : null;
+        return limiter != null ? limiter.reserve() : 0;
+    }
+
+    private <T> HttpResponse<T> sendWithRetry(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+
+        RetryPolicy policy = retryPolicy;
+        policy.onRequest();
+
+        long delay = 0;
+        for (int attempt = 0; ; attempt++) {
+            HttpResponse<T> response;
+            try {
+                response = send(request, handler);
             } catch (IOException e) {
-                last = e;
-                if (attempt == maxRetries) {
-                    break;
+                delay = policy.delayAfterFailure(attempt, delay, e);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    throw e;
+                }
+                Thread.sleep(delay);
+                continue;
+            }
+
+            delay = policy.delayAfterStatus(attempt, delay, response.statusCode(), retryAfter(response));
+            if (delay == RetryPolicy.NO_RETRY) {
+                return response;
+            }
+            discard(response);
+            Thread.sleep(delay);
+        }
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendWithRetryAsync(HttpRequest request,
+                                                                      HttpResponse.BodyHandler<T> handler) {
+        return sendWithRetryAsync(request, handler, false);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendWithRetryAsync(HttpRequest request,
+                                                                      HttpResponse.BodyHandler<T> handler,
+                                                                      boolean hedged) {
+        RetryPolicy policy = retryPolicy;
+        policy.onRequest();
+
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        attemptAsync(request, handler, hedged, policy, 0, 0, result);
+        return result;
+    }
+
+    private <T> void attemptAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler, boolean hedged,
+                                  RetryPolicy policy, int attempt, long previousDelay,
+                                  CompletableFuture<HttpResponse<T>> result) {
+        if (result.isDone()) {
+            return; // caller gave up (cancelled)
+        }
+        CompletableFuture<HttpResponse<T>> sent = hedged
+                ? sendHedgedAsync(request, handler)
+                : sendAsync(request, handler);
+        cancelWith(result, sent);
+        sent.whenComplete((response, error) -> {
+            long delay;
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                delay = policy.delayAfterFailure(attempt, previousDelay, cause);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+            } else {
+                delay = policy.delayAfterStatus(attempt, previousDelay,
+                        response.statusCode(), retryAfter(response));
+                if (delay == RetryPolicy.NO_RETRY) {
+                    result.complete(response);
+                    return;
                 }
-                Thread.sleep(backoffMs * (attempt + 1L));
+                discard(response);
+            }
+            // schedule the next attempt on a timer instead of sleeping
+            Executor later = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+            later.execute(() -> attemptAsync(request, handler, hedged, policy, attempt + 1, delay, result));
+        });
+    }
+
+    private static String retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After").orElse(null);
+    }
+
+    /** Release a response we are about to retry (matters for streamed bodies). */
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // nothing useful to do; we're retrying anyway
+            }
+        }
+    }
+
+    /** Strip the CompletionException/ExecutionException wrappers futures add. */
+    public static Throwable unwrap(Throwable error) {
+        Throwable t = error;
+        while ((t instanceof CompletionException || t instanceof ExecutionException)
+                && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * {@link #await(CompletableFuture)} that also gives up when
+     * {@code cancellation} is cancelled, cancelling the future (and the work
+     * behind it) and throwing {@link CancellationException}.
+     */
+    public static <T> T await(CompletableFuture<T> future, CancellationToken cancellation)
+            throws IOException, InterruptedException {
+        return await(cancellation.bind(future));
+    }
+
+    /**
+     * Block on an async call and rethrow its failure the way the sync API does.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
             }
+            throw new IOException(cause);
         }
-        throw last;
     }
 }
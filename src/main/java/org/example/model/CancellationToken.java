@@ -0,0 +1,63 @@
+package org.example.model;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Cancellation signal for one user operation (a search, a generation),
+ * handed down from the controller through strategies and services to the
+ * futures that do the work.
+ *
+ * {@link #bind} ties a future to the token: cancelling the token cancels the
+ * future, and with it - because every stage down to {@link APIClient}
+ * propagates cancellation - the HTTP exchange, retry and poll timers, and
+ * any circuit breaker permit it holds. A bound future that finishes first is
+ * forgotten, so a long-lived token does not accumulate them.
+ */
+public final class CancellationToken {
+
+    /** A token that is never cancelled. */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private final Set<Future<?>> bound = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Cancel every future bound to this token, now and later. Idempotent. */
+    public void cancel() {
+        if (this == NONE || cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Future<?> future : bound) {
+            future.cancel(true);
+        }
+        bound.clear();
+    }
+
+    /** Cancel {@code future} when this token is cancelled (at once if it already is). */
+    public <T> CompletableFuture<T> bind(CompletableFuture<T> future) {
+        if (this == NONE) {
+            return future;
+        }
+        bound.add(future);
+        future.whenComplete((value, error) -> bound.remove(future));
+        if (cancelled) {
+            // raced with cancel(): it may have missed this one
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Operation cancelled");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.model.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of a cache's counters.
+ */
+public class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTimeNanos;
+    private final long size;
+
+    public CacheStats(long hitCount, long missCount, long evictionCount,
+                      long loadSuccessCount, long loadFailureCount,
+                      long totalLoadTimeNanos, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    public double getAverageLoadMillis() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0.0 : (double) TimeUnit.NANOSECONDS.toMicros(totalLoadTimeNanos) / loads / 1000.0;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hitCount +
+                ", misses=" + missCount +
+                ", hitRate=" + String.format("%.2f", getHitRate()) +
+                ", evictions=" + evictionCount +
+                ", loads=" + loadSuccessCount +
+                ", loadFailures=" + loadFailureCount +
+                ", avgLoadMs=" + String.format("%.1f", getAverageLoadMillis()) +
+                ", size=" + size +
+                '}';
+    }
+}
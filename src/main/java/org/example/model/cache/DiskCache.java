@@ -0,0 +1,529 @@
+package org.example.model.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent key/value cache made of append-only, memory-mapped segment files.
+ *
+ * Layout (Bitcask-style):
+ * - each segment is a fixed-size file mapped once; records are appended at
+ *   its write position and never modified in place;
+ * - an in-memory hash index maps each key to its latest record, and is
+ *   rebuilt on startup by scanning the segments;
+ * - reads go straight to the mapped buffer and return a read-only slice of
+ *   the value, so nothing but the requested record is ever decoded.
+ *
+ * Record: [int length][long expiresAtMillis][int crc][short keyLength][key][value],
+ * where length counts everything after itself. A zero length marks the end
+ * of a segment's data. Expiry uses wall-clock time so it survives restarts.
+ *
+ * Overwritten and expired records are garbage. A background task rewrites
+ * the live records of mostly-garbage segments into the active segment and
+ * deletes the old file. When there are more than maxSegments files, the
+ * oldest is dropped wholesale - this is a cache, not a store.
+ *
+ * A dropped segment may still be mapped by buffers {@link #get} handed out,
+ * and a mapped file cannot be deleted on every platform. So dropping first
+ * overwrites the segment's magic with a tombstone, then tries the delete;
+ * a file that refuses is retried on the next compaction and on close, and a
+ * tombstoned file found on startup is deleted instead of recovered.
+ *
+ * Only one DiskCache may use a directory at a time: the constructor takes
+ * an exclusive lock on a lock file there and fails with an IOException when
+ * another process (another running app instance) holds it.
+ *
+ * Writes are serialized; reads are lock-free.
+ */
+public class DiskCache implements Closeable {
+
+    private static final int SEGMENT_MAGIC = 0x4D4D5843; // "MMXC"
+    static final int DROPPED_MAGIC = 0x4D4D5844;          // "MMXD", delete on sight
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 4 + 8 + 4 + 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String LOCK_FILE = "cache.lock";
+    private static final double COMPACTION_GARBAGE_RATIO = 0.5;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final LongSupplier clock;
+    // held until close; released with the channel
+    private final FileChannel lockChannel;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+    private volatile Segment active;
+    // dropped segment files whose delete failed (still mapped somewhere)
+    private final List<Path> pendingDeletes = new CopyOnWriteArrayList<>();
+    private int nextSegmentId;
+
+    private final ScheduledExecutorService compactor;
+    private volatile boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final AtomicInteger compactions = new AtomicInteger();
+
+    public DiskCache(Path directory, int segmentBytes, int maxSegments, long compactionIntervalMs) throws IOException {
+        this(directory, segmentBytes, maxSegments, compactionIntervalMs, System::currentTimeMillis);
+    }
+
+    DiskCache(Path directory, int segmentBytes, int maxSegments, long compactionIntervalMs,
+              LongSupplier clock) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.maxSegments = Math.max(2, maxSegments);
+        this.clock = clock;
+
+        Files.createDirectories(directory);
+        this.lockChannel = lockDirectory(directory);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            for (Segment segment : segments) {
+                segment.channel.close();
+            }
+            lockChannel.close();
+            throw e;
+        }
+
+        if (compactionIntervalMs > 0) {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "disk-cache-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+            compactor.scheduleWithFixedDelay(this::compactQuietly,
+                    compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.compactor = null;
+        }
+    }
+
+    private static FileChannel lockDirectory(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // held by another DiskCache in this JVM
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Disk cache directory " + directory + " is in use by another instance");
+        }
+        return channel;
+    }
+
+    /**
+     * Read-only view of the stored value, backed by the mapped file, or null
+     * when the key is absent or expired.
+     */
+    public ByteBuffer get(String key) {
+        Location loc = index.get(key);
+        if (loc == null) {
+            misses.increment();
+            return null;
+        }
+        if (loc.expiresAtMillis <= clock.getAsLong()) {
+            if (index.remove(key, loc)) {
+                loc.segment.garbageBytes.addAndGet(loc.length);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return loc.segment.buffer
+                .slice(loc.valueOffset(), loc.valueLength())
+                .asReadOnlyBuffer();
+    }
+
+    /**
+     * Append a value for key. Returns false (and stores nothing) when the
+     * record would not fit in a single segment or the cache is closed.
+     */
+    public boolean put(String key, byte[] value, long ttlMillis) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_BYTES + keyBytes.length + value.length;
+        if (keyBytes.length > Short.MAX_VALUE || length > segmentBytes - SEGMENT_HEADER_BYTES - 4) {
+            return false;
+        }
+        long expiresAt = clock.getAsLong() + ttlMillis;
+
+        synchronized (writeLock) {
+            if (closed) {
+                return false;
+            }
+            Location loc = append(keyBytes, value, expiresAt, length);
+            Location previous = index.put(key, loc);
+            if (previous != null) {
+                previous.segment.garbageBytes.addAndGet(previous.length);
+            }
+        }
+        writes.increment();
+        return true;
+    }
+
+    public void invalidate(String key) {
+        Location previous = index.remove(key);
+        if (previous != null) {
+            previous.segment.garbageBytes.addAndGet(previous.length);
+        }
+    }
+
+    /**
+     * Rewrite live records out of mostly-garbage sealed segments and delete
+     * those files. Runs periodically in the background; callable directly.
+     */
+    public void compact() throws IOException {
+        retryPendingDeletes();
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Location> e : index.entrySet()) {
+            Location loc = e.getValue();
+            if (loc.expiresAtMillis <= now && index.remove(e.getKey(), loc)) {
+                loc.segment.garbageBytes.addAndGet(loc.length);
+            }
+        }
+
+        for (Segment segment : segments) {
+            if (segment == active || segment.garbageRatio() < COMPACTION_GARBAGE_RATIO) {
+                continue;
+            }
+            synchronized (writeLock) {
+                if (closed) {
+                    return;
+                }
+                for (Map.Entry<String, Location> e : index.entrySet()) {
+                    Location loc = e.getValue();
+                    if (loc.segment != segment) {
+                        continue;
+                    }
+                    ByteBuffer record = segment.buffer.slice(loc.offset, loc.length);
+                    Location moved = copy(record, loc);
+                    if (!index.replace(e.getKey(), loc, moved)) {
+                        moved.segment.garbageBytes.addAndGet(moved.length);
+                    }
+                }
+                drop(segment);
+            }
+            compactions.incrementAndGet();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Disk cache compaction failed: " + e.getMessage());
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    public int getCompactionCount() {
+        return compactions.get();
+    }
+
+    public int getEntryCount() {
+        return index.size();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        }
+        retryPendingDeletes();
+        lockChannel.close();
+    }
+
+    // -------------------------------------------------------------------------
+    // Writing (callers hold writeLock)
+    // -------------------------------------------------------------------------
+
+    private Location append(byte[] keyBytes, byte[] value, long expiresAt, int length) throws IOException {
+        Segment segment = segmentWithRoom(length);
+        int offset = segment.writePosition;
+
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(value);
+
+        ByteBuffer out = segment.buffer.duplicate();
+        out.position(offset);
+        out.putInt(length - 4);
+        out.putLong(expiresAt);
+        out.putInt((int) crc.getValue());
+        out.putShort((short) keyBytes.length);
+        out.put(keyBytes);
+        out.put(value);
+
+        segment.writePosition = offset + length;
+        return new Location(segment, offset, length, keyBytes.length, expiresAt);
+    }
+
+    /** Copy an existing record byte-for-byte into the active segment. */
+    private Location copy(ByteBuffer record, Location from) throws IOException {
+        Segment segment = segmentWithRoom(from.length);
+        int offset = segment.writePosition;
+        ByteBuffer out = segment.buffer.duplicate();
+        out.position(offset);
+        out.put(record);
+        segment.writePosition = offset + from.length;
+        return new Location(segment, offset, from.length, from.keyLength, from.expiresAtMillis);
+    }
+
+    private Segment segmentWithRoom(int length) throws IOException {
+        // keep 4 zero bytes after the last record as the end marker
+        if (active == null || active.writePosition + length + 4 > active.capacity()) {
+            if (active != null) {
+                active.buffer.force();
+            }
+            active = createSegment(nextSegmentId++);
+            segments.add(active);
+            while (segments.size() > maxSegments) {
+                drop(segments.get(0));
+            }
+        }
+        return active;
+    }
+
+    private void drop(Segment segment) throws IOException {
+        index.values().removeIf(loc -> loc.segment == segment);
+        segments.remove(segment);
+        // readers may still hold slices of this mapping; the header is not part of any value
+        segment.buffer.putInt(0, DROPPED_MAGIC);
+        segment.buffer.force(0, SEGMENT_HEADER_BYTES);
+        segment.channel.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            // e.g. still mapped on Windows; the tombstone keeps it from coming back
+            pendingDeletes.add(segment.path);
+        }
+    }
+
+    private void retryPendingDeletes() {
+        pendingDeletes.removeIf(path -> {
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        return new Segment(path, channel, buffer, SEGMENT_HEADER_BYTES);
+    }
+
+    // -------------------------------------------------------------------------
+    // Startup: rebuild the index from the segment files
+    // -------------------------------------------------------------------------
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort((a, b) -> Integer.compare(segmentId(a), segmentId(b)));
+
+        long now = clock.getAsLong();
+        for (Path path : files) {
+            int id = segmentId(path);
+            if (id < 0) {
+                continue;
+            }
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < SEGMENT_HEADER_BYTES || size > Integer.MAX_VALUE) {
+                channel.close();
+                Files.deleteIfExists(path);
+                continue;
+            }
+            // check the header before mapping: a mapped file may not be deletable
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            channel.read(header, 0);
+            if (header.getInt(0) != SEGMENT_MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                // dropped earlier (tombstoned) or written by an incompatible version
+                channel.close();
+                Files.deleteIfExists(path);
+                continue;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            Segment segment = new Segment(path, channel, buffer, SEGMENT_HEADER_BYTES);
+            scan(segment, now);
+            segments.add(segment);
+        }
+
+        if (!segments.isEmpty()) {
+            active = segments.get(segments.size() - 1);
+        }
+    }
+
+    /** Index every intact record; stops at the end marker or the first torn/corrupt record. */
+    private void scan(Segment segment, long now) {
+        ByteBuffer in = segment.buffer.duplicate();
+        int pos = SEGMENT_HEADER_BYTES;
+        while (pos + RECORD_HEADER_BYTES <= segment.capacity()) {
+            in.position(pos);
+            int body = in.getInt();
+            int length = body + 4;
+            if (body <= 0 || pos + length > segment.capacity()) {
+                break;
+            }
+            long expiresAt = in.getLong();
+            int storedCrc = in.getInt();
+            int keyLength = in.getShort();
+            int valueLength = length - RECORD_HEADER_BYTES - keyLength;
+            if (keyLength < 0 || valueLength < 0) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            in.get(keyBytes);
+            CRC32 crc = new CRC32();
+            crc.update(keyBytes);
+            crc.update(in.slice(in.position(), valueLength));
+            if ((int) crc.getValue() != storedCrc) {
+                break;
+            }
+
+            Location loc = new Location(segment, pos, length, keyLength, expiresAt);
+            if (expiresAt > now) {
+                Location previous = index.put(new String(keyBytes, StandardCharsets.UTF_8), loc);
+                if (previous != null) {
+                    previous.segment.garbageBytes.addAndGet(previous.length);
+                }
+            } else {
+                segment.garbageBytes.addAndGet(length);
+            }
+            pos += length;
+        }
+        segment.writePosition = pos;
+        // anything after a torn record is unusable; make sure the next scan stops here
+        if (pos + 4 <= segment.capacity()) {
+            segment.buffer.putInt(pos, 0);
+        }
+    }
+
+    private static int segmentId(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final AtomicInteger garbageBytes = new AtomicInteger();
+        int writePosition;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer, int writePosition) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.writePosition = writePosition;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        double garbageRatio() {
+            int used = writePosition - SEGMENT_HEADER_BYTES;
+            return used <= 0 ? 0.0 : (double) garbageBytes.get() / used;
+        }
+    }
+
+    private static final class Location {
+        final Segment segment;
+        final int offset;
+        final int length;
+        final int keyLength;
+        final long expiresAtMillis;
+
+        Location(Segment segment, int offset, int length, int keyLength, long expiresAtMillis) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.keyLength = keyLength;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        int valueOffset() {
+            return offset + RECORD_HEADER_BYTES + keyLength;
+        }
+
+        int valueLength() {
+            return length - RECORD_HEADER_BYTES - keyLength;
+        }
+    }
+}
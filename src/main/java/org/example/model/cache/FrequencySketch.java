@@ -0,0 +1,70 @@
+package org.example.model.cache;
+
+/**
+ * Count-min sketch with 4-bit-style saturating counters, used by
+ * {@link TinyLfuCache} to estimate how often a key has been seen recently.
+ *
+ * Counters are periodically halved ("aging") so the estimate reflects recent
+ * popularity rather than all-time counts. Not thread-safe: each cache stripe
+ * owns one and only touches it under the stripe lock.
+ */
+class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0x0ba7b8d5, 0x9c9f2f49, 0x5e2d58d1};
+
+    private final int[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(64, expectedEntries * 16) - 1) << 1;
+        this.table = new int[size];
+        this.mask = size - 1;
+        this.sampleSize = Math.max(10, expectedEntries * 10);
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int seed : SEEDS) {
+            int i = index(hash, seed);
+            if (table[i] < MAX_COUNT) {
+                table[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int seed : SEEDS) {
+            min = Math.min(min, table[index(hash, seed)]);
+        }
+        return min;
+    }
+
+    private void age() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int seed) {
+        int h = (hash ^ seed) * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        return h;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.model.cache;
+
+import java.util.Arrays;
+
+/**
+ * Sorted list of document ids for one token, stored as varint-encoded gaps
+ * (most gaps fit in a single byte). Ids must be added in increasing order.
+ */
+final class PostingList {
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    void add(int doc) {
+        if (doc <= last) {
+            return;
+        }
+        int gap = doc - last - 1;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((gap & ~0x7F) != 0) {
+            data[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        data[length++] = (byte) gap;
+        last = doc;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        int[] docs = new int[size];
+        int doc = -1;
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            doc += gap + 1;
+            docs[i] = doc;
+        }
+        return docs;
+    }
+}
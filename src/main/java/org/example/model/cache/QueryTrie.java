@@ -0,0 +1,289 @@
+package org.example.model.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Frequency-weighted prefix trie of phrases for typeahead: past queries
+ * and artist names seen in results.
+ *
+ * Phrases are matched case-insensitively with runs of whitespace collapsed;
+ * the most recently recorded spelling is the one suggested. Each node keeps
+ * its children in a sorted char array and the best weight found below it,
+ * so {@link #complete} is a best-first walk that touches only the nodes
+ * leading to the top results - independent of how many phrases are stored.
+ *
+ * Thread-safe: completions share a read lock, recording takes the write lock.
+ * {@link #save()} writes the phrases to the file given to {@link #open(Path)}.
+ */
+public class QueryTrie {
+
+    private static final int FILE_MAGIC = 0x4D4D5854;
+    private static final byte FORMAT_VERSION = 1;
+    // longer input is not a query anyone wants suggested back
+    private static final int MAX_PHRASE_LENGTH = 100;
+
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private int size;
+    private long modifications;
+    private long savedModifications;
+
+    /** A memory-only trie. */
+    public QueryTrie() {
+        this(null);
+    }
+
+    private QueryTrie(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Trie persisted at {@code file}, loaded from it if it exists. A file in
+     * an unknown format is ignored and overwritten on the next save.
+     */
+    public static QueryTrie open(Path file) throws IOException {
+        QueryTrie trie = new QueryTrie(Objects.requireNonNull(file, "file"));
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+                if (in.readInt() == FILE_MAGIC && in.readByte() == FORMAT_VERSION) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String phrase = in.readUTF();
+                        trie.record(phrase, in.readLong());
+                    }
+                }
+            } catch (EOFException e) {
+                // truncated file: keep what was read
+            }
+            trie.savedModifications = trie.modifications;
+        }
+        return trie;
+    }
+
+    /** Add {@code weight} to the phrase's count (creating it if new). Blank phrases are ignored. */
+    public void record(String phrase, long weight) {
+        if (phrase == null || weight <= 0) {
+            return;
+        }
+        String display = phrase.trim().replaceAll("\\s+", " ");
+        String key = normalize(display);
+        if (key.isEmpty() || key.length() > MAX_PHRASE_LENGTH) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path[i + 1] = node;
+            }
+            if (node.text == null) {
+                size++;
+            }
+            node.text = display;
+            node.weight = saturatedAdd(node.weight, weight);
+            for (Node n : path) {
+                n.maxWeight = Math.max(n.maxWeight, node.weight);
+            }
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Up to {@code limit} phrases starting with {@code prefix}, highest weight first. */
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix == null ? "" : prefix.replaceAll("\\s+", " "));
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            // a node's priority is the best weight below it; a phrase's is its own weight
+            PriorityQueue<Candidate> frontier = new PriorityQueue<>();
+            frontier.add(new Candidate(node, false, node.maxWeight));
+            List<String> results = new ArrayList<>(limit);
+            while (!frontier.isEmpty() && results.size() < limit) {
+                Candidate best = frontier.poll();
+                if (best.phrase) {
+                    results.add(best.node.text);
+                    continue;
+                }
+                if (best.node.text != null) {
+                    frontier.add(new Candidate(best.node, true, best.node.weight));
+                }
+                for (int i = 0; i < best.node.childCount; i++) {
+                    Node child = best.node.children[i];
+                    frontier.add(new Candidate(child, false, child.maxWeight));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of distinct phrases. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write all phrases to the trie file (atomically, via a temp file).
+     * No-op for a memory-only trie or when nothing changed since the last save.
+     */
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = modifications;
+            if (snapshot == savedModifications) {
+                return;
+            }
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FILE_MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(size);
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                if (node.text != null) {
+                    out.writeUTF(node.text);
+                    out.writeLong(node.weight);
+                }
+                for (int i = 0; i < node.childCount; i++) {
+                    stack.push(node.children[i]);
+                }
+            }
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lock.writeLock().lock();
+        try {
+            // phrases recorded while writing are saved next time
+            savedModifications = snapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // sorted by label; only childCount slots are used
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        int childCount;
+
+        String text;      // phrase ending here (display spelling), or null
+        long weight;      // that phrase's weight
+        long maxWeight;   // best phrase weight in this subtree
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, at, labels, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            Node created = new Node();
+            labels[at] = c;
+            children[at] = created;
+            childCount++;
+            return created;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final Node node;
+        final boolean phrase;
+        final long priority;
+
+        Candidate(Node node, boolean phrase, long priority) {
+            this.node = node;
+            this.phrase = phrase;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (priority != other.priority) {
+                return Long.compare(other.priority, priority);
+            }
+            // on a tie a finished phrase beats a subtree that can at best match it
+            return Boolean.compare(other.phrase, phrase);
+        }
+    }
+}
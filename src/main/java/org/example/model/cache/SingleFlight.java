@@ -0,0 +1,115 @@
+package org.example.model.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical requests: while a load for a key is in
+ * flight, later callers for the same key join it instead of starting their
+ * own. The entry is removed as soon as the load finishes, so this never
+ * serves stale results - it only deduplicates work that overlaps in time.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    /**
+     * Run {@code loader} for {@code key}, or join the load already running.
+     * Each caller gets its own future view, so one caller cancelling does
+     * not cancel the result for the others; once every caller has cancelled,
+     * the load itself is cancelled and the next caller starts a fresh one.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            Flight<V> existing = inFlight.get(key);
+            if (existing != null) {
+                if (existing.join()) {
+                    joined.increment();
+                    return view(key, existing);
+                }
+                // abandoned by all its callers; replace it
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            Flight<V> mine = new Flight<>();
+            if (inFlight.putIfAbsent(key, mine) != null) {
+                continue;
+            }
+
+            loads.increment();
+            try {
+                CompletableFuture<V> load = loader.get();
+                mine.load = load;
+                load.whenComplete((value, error) -> {
+                    // remove first so nobody joins a finished load
+                    inFlight.remove(key, mine);
+                    if (error != null) {
+                        mine.result.completeExceptionally(error);
+                    } else {
+                        mine.result.complete(value);
+                    }
+                });
+                if (mine.result.isCancelled()) {
+                    // every caller left before the loader returned
+                    load.cancel(true);
+                }
+            } catch (RuntimeException e) {
+                inFlight.remove(key, mine);
+                mine.result.completeExceptionally(e);
+            }
+            return view(key, mine);
+        }
+    }
+
+    private CompletableFuture<V> view(K key, Flight<V> flight) {
+        CompletableFuture<V> view = flight.result.copy();
+        view.whenComplete((value, error) -> {
+            if (view.isCancelled() && flight.leave()) {
+                inFlight.remove(key, flight);
+                flight.result.cancel(true);
+                CompletableFuture<V> load = flight.load;
+                if (load != null) {
+                    load.cancel(true);
+                }
+            }
+        });
+        return view;
+    }
+
+    /** Number of loads actually started. */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /** Number of callers that joined an in-flight load instead of starting one. */
+    public long getJoinedCount() {
+        return joined.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        // callers still interested; 0 means abandoned, and it never goes back up
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile CompletableFuture<V> load;
+
+        boolean join() {
+            return waiters.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+        }
+
+        /** True for the caller whose cancellation leaves nobody waiting. */
+        boolean leave() {
+            return waiters.decrementAndGet() == 0;
+        }
+    }
+}
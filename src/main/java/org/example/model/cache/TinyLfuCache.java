@@ -0,0 +1,314 @@
+package org.example.model.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded in-memory cache with TTL expiry and W-TinyLFU admission.
+ *
+ * Keys are spread over independent stripes, each with its own lock, so
+ * threads working on different keys rarely contend. Inside a stripe:
+ * - new entries land in a small LRU "window" (about 1% of the stripe);
+ * - when the window overflows, its oldest entry competes with the main
+ *   region's LRU victim, and whichever a frequency sketch says has been
+ *   requested more often stays.
+ * A burst of one-off queries therefore cycles through the window without
+ * pushing out entries that are requested all the time.
+ *
+ * Loads go through {@link SingleFlight}, so a miss on a hot key triggers
+ * a single load no matter how many callers are waiting for it.
+ *
+ * Expired entries can optionally be retained for a while as "stale": they
+ * no longer count as hits, but a loader gets to see the stale value (e.g. to
+ * revalidate it with the server instead of fetching it again).
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe<K, V>[] stripes;
+    private final ToLongFunction<? super V> freshForNanos;
+    private final long staleRetentionNanos;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+
+    public TinyLfuCache(int maxEntries, long ttl, TimeUnit unit) {
+        this(maxEntries, value -> unit.toNanos(ttl), 0);
+    }
+
+    /**
+     * @param freshForNanos       how long each value stays fresh; negative means "do not cache"
+     * @param staleRetentionNanos how long an expired entry is kept around as stale
+     */
+    public TinyLfuCache(int maxEntries, ToLongFunction<? super V> freshForNanos, long staleRetentionNanos) {
+        int capacity = Math.max(1, maxEntries);
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(capacity));
+        int perStripe = (capacity + stripeCount - 1) / stripeCount;
+
+        // no generic array creation in Java; every slot is filled with a Stripe<K, V> below
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Stripe<K, V>[] created = new Stripe[stripeCount];
+        this.stripes = created;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+        this.freshForNanos = freshForNanos;
+        this.staleRetentionNanos = Math.max(0, staleRetentionNanos);
+    }
+
+    /** Cached value, or null when absent or expired. */
+    public V getIfPresent(K key) {
+        Entry<V> entry = getEntry(key);
+        return entry != null && entry.isFresh() ? entry.getValue() : null;
+    }
+
+    /**
+     * The entry for key, fresh or stale, or null when there is none (or it
+     * has outlived its stale retention). Only fresh entries count as hits.
+     */
+    public Entry<V> getEntry(K key) {
+        Entry<V> entry = stripeFor(key).get(key, System.nanoTime());
+        if (entry != null && entry.isFresh()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return entry;
+    }
+
+    public void put(K key, V value) {
+        long freshFor = freshForNanos.applyAsLong(value);
+        if (freshFor < 0) {
+            invalidate(key);
+            return;
+        }
+        long freshUntil = System.nanoTime() + freshFor;
+        int evicted = stripeFor(key).put(key, new Entry<>(value, freshUntil, freshUntil + staleRetentionNanos));
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+
+    public void invalidate(K key) {
+        stripeFor(key).remove(key);
+    }
+
+    /**
+     * Return the cached value, or load it once (shared by all concurrent
+     * callers for the key) and cache it on success.
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        return get(key, (k, stale) -> loader.apply(k));
+    }
+
+    /**
+     * Like {@link #get(Object, Function)}, but the loader also receives the
+     * stale value for the key (null if none), so it can revalidate instead of
+     * reloading from scratch.
+     */
+    public CompletableFuture<V> get(K key, BiFunction<K, V, CompletableFuture<V>> loader) {
+        Entry<V> entry = getEntry(key);
+        if (entry != null && entry.isFresh()) {
+            return CompletableFuture.completedFuture(entry.getValue());
+        }
+        return load(key, entry != null ? entry.getValue() : null, loader);
+    }
+
+    /**
+     * Load key unconditionally (joining a load already in flight) and cache
+     * the result. The loader sees the currently retained value, if any.
+     * Used for background refreshes; does not touch hit/miss counts.
+     */
+    public CompletableFuture<V> refresh(K key, BiFunction<K, V, CompletableFuture<V>> loader) {
+        Entry<V> entry = stripeFor(key).get(key, System.nanoTime());
+        return load(key, entry != null ? entry.getValue() : null, loader);
+    }
+
+    private CompletableFuture<V> load(K key, V stale, BiFunction<K, V, CompletableFuture<V>> loader) {
+        return loads.execute(key, () -> {
+            long start = System.nanoTime();
+            CompletableFuture<V> loading = loader.apply(key, stale);
+            CompletableFuture<V> observed = loading.whenComplete((value, error) -> {
+                loadTimeNanos.add(System.nanoTime() - start);
+                if (error == null && value != null) {
+                    loadSuccesses.increment();
+                    put(key, value);
+                } else {
+                    loadFailures.increment();
+                }
+            });
+            // abandoned by every caller (see SingleFlight): stop the load itself
+            observed.whenComplete((value, error) -> {
+                if (observed.isCancelled()) {
+                    loading.cancel(true);
+                }
+            });
+            return observed;
+        });
+    }
+
+    public long size() {
+        long n = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            n += stripe.size();
+        }
+        return n;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(),
+                loadSuccesses.sum(), loadFailures.sum(), loadTimeNanos.sum(), size());
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    /** A cached value with its freshness deadline. */
+    public static final class Entry<V> {
+        private final V value;
+        private final long freshUntilNanos;
+        private final long retainUntilNanos;
+
+        Entry(V value, long freshUntilNanos, long retainUntilNanos) {
+            this.value = value;
+            this.freshUntilNanos = freshUntilNanos;
+            this.retainUntilNanos = retainUntilNanos;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        /** How long ago the entry stopped being fresh (0 while fresh). */
+        public long getStaleNanos() {
+            return Math.max(0, System.nanoTime() - freshUntilNanos);
+        }
+
+        boolean isExpired(long now) {
+            return now - retainUntilNanos >= 0;
+        }
+    }
+
+    /** One independently locked W-TinyLFU segment. */
+    private static final class Stripe<K, V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int windowCapacity;
+        private final int mainCapacity;
+        private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+
+        Stripe(int capacity) {
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.mainCapacity = Math.max(1, capacity - windowCapacity);
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        Entry<V> get(K key, long now) {
+            lock.lock();
+            try {
+                sketch.increment(key);
+                Entry<V> entry = window.get(key);
+                Map<K, Entry<V>> owner = window;
+                if (entry == null) {
+                    entry = main.get(key);
+                    owner = main;
+                }
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.isExpired(now)) {
+                    owner.remove(key);
+                    return null;
+                }
+                return entry;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Returns the number of entries evicted to make room. */
+        int put(K key, Entry<V> entry) {
+            lock.lock();
+            try {
+                if (main.containsKey(key)) {
+                    main.put(key, entry);
+                    return 0;
+                }
+                sketch.increment(key);
+                window.put(key, entry);
+                if (window.size() <= windowCapacity) {
+                    return 0;
+                }
+                return admitFromWindow();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Window overflowed: move its LRU entry to main if it earns its place. */
+        private int admitFromWindow() {
+            Iterator<Map.Entry<K, Entry<V>>> it = window.entrySet().iterator();
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            it.remove();
+
+            if (main.size() < mainCapacity) {
+                main.put(candidate.getKey(), candidate.getValue());
+                return 0;
+            }
+
+            Iterator<Map.Entry<K, Entry<V>>> mainIt = main.entrySet().iterator();
+            Map.Entry<K, Entry<V>> victim = mainIt.next();
+            long now = System.nanoTime();
+            if (victim.getValue().isExpired(now)
+                    || sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+                mainIt.remove();
+                main.put(candidate.getKey(), candidate.getValue());
+            }
+            // either the victim or the candidate is dropped
+            return 1;
+        }
+
+        void remove(K key) {
+            lock.lock();
+            try {
+                if (window.remove(key) == null) {
+                    main.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return window.size() + main.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
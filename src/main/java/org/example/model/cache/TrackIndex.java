@@ -0,0 +1,322 @@
+package org.example.model.cache;
+
+import org.example.model.domain.Track;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over every track seen, for answering searches
+ * without the network.
+ *
+ * Name, artist and album are tokenized (lower case, accents stripped, split
+ * on anything that is not a letter or digit) and each token maps to a
+ * {@link PostingList} of document ids. A track that comes back with the same
+ * text keeps its document and only has its metadata (popularity etc.)
+ * replaced; if its text changed it is re-indexed under a new document.
+ *
+ * Thread-safe: searches share a read lock, additions take the write lock.
+ * {@link #save()} writes the live tracks (via {@link TrackListCodec}) to the
+ * file given to {@link #open(Path)}; postings are rebuilt on load.
+ */
+public class TrackIndex {
+
+    private static final int FILE_MAGIC = 0x4D4D5849;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final Path file;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // document id -> track; null once the track was re-indexed under a new document
+    private final List<Track> docs = new ArrayList<>();
+    private final Map<String, Integer> docByTrackId = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    // bumped on every change; save() skips the write when nothing changed since the last one
+    private long modifications;
+    private long savedModifications;
+
+    /** A memory-only index. */
+    public TrackIndex() {
+        this(null);
+    }
+
+    private TrackIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Index persisted at {@code file}, loaded from it if it exists. A file in
+     * an unknown format is ignored and overwritten on the next save.
+     */
+    public static TrackIndex open(Path file) throws IOException {
+        TrackIndex index = new TrackIndex(Objects.requireNonNull(file, "file"));
+        if (Files.exists(file)) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() >= 4 && in.getInt() == FILE_MAGIC) {
+                List<Track> tracks = TrackListCodec.decode(in);
+                if (tracks != null) {
+                    index.addAll(tracks);
+                }
+            }
+            index.savedModifications = index.modifications;
+        }
+        return index;
+    }
+
+    public void add(Track track) {
+        addAll(Collections.singletonList(track));
+    }
+
+    public void addAll(Collection<Track> tracks) {
+        lock.writeLock().lock();
+        try {
+            for (Track track : tracks) {
+                if (track != null && track.getId() != null) {
+                    index(track);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Track track) {
+        Integer existing = docByTrackId.get(track.getId());
+        if (existing != null) {
+            Track old = docs.get(existing);
+            if (sameText(old, track)) {
+                if (!sameMetadata(old, track)) {
+                    docs.set(existing, track);
+                    modifications++;
+                }
+                return;
+            }
+            docs.set(existing, null);
+        }
+        int doc = docs.size();
+        docs.add(track);
+        docByTrackId.put(track.getId(), doc);
+        for (String field : new String[]{track.getName(), track.getArtist(), track.getAlbum()}) {
+            for (String token : tokens(field)) {
+                postings.computeIfAbsent(token, t -> new PostingList()).add(doc);
+            }
+        }
+        modifications++;
+    }
+
+    /**
+     * Tracks containing every token of {@code text}, most popular first.
+     * Empty when text has no tokens.
+     */
+    public List<Track> search(String text, int limit) {
+        Set<String> terms = tokens(text);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            // intersect from the rarest token so the working set only shrinks
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            int[] matches = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && matches.length > 0; i++) {
+                matches = intersect(matches, lists.get(i).toArray());
+            }
+
+            List<Track> found = new ArrayList<>(matches.length);
+            for (int doc : matches) {
+                Track t = docs.get(doc);
+                if (t != null) {
+                    found.add(t);
+                }
+            }
+            found.sort(Comparator.comparingInt(Track::getPopularity).reversed());
+            return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tracks containing any token of {@code text}: those matching the most
+     * tokens first, then by popularity. For when {@link #search} finds too little.
+     */
+    public List<Track> searchAny(String text, int limit) {
+        Set<String> terms = tokens(text);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> matchedTerms = new HashMap<>();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    for (int doc : list.toArray()) {
+                        matchedTerms.merge(doc, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Integer> found = new ArrayList<>(matchedTerms.size());
+            for (Integer doc : matchedTerms.keySet()) {
+                if (docs.get(doc) != null) {
+                    found.add(doc);
+                }
+            }
+            found.sort(Comparator.comparingInt((Integer doc) -> matchedTerms.get(doc)).reversed()
+                    .thenComparing(Comparator.comparingInt((Integer doc) -> docs.get(doc).getPopularity()).reversed()));
+
+            List<Track> tracks = new ArrayList<>(Math.min(limit, found.size()));
+            for (int i = 0; i < found.size() && i < limit; i++) {
+                tracks.add(docs.get(found.get(i)));
+            }
+            return tracks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of distinct tracks indexed. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByTrackId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Every indexed track, in the order they were first indexed. */
+    public List<Track> tracks() {
+        lock.readLock().lock();
+        try {
+            return liveTracks();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the indexed tracks to the index file (atomically, via a temp file).
+     * No-op for a memory-only index or when nothing changed since the last save.
+     */
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        byte[] encoded;
+        long snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = modifications;
+            if (snapshot == savedModifications) {
+                return;
+            }
+            encoded = TrackListCodec.encode(liveTracks());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        byte[] bytes = ByteBuffer.allocate(4 + encoded.length).putInt(FILE_MAGIC).put(encoded).array();
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lock.writeLock().lock();
+        try {
+            // tracks added while writing are saved next time
+            savedModifications = snapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // callers hold the lock
+    private List<Track> liveTracks() {
+        List<Track> live = new ArrayList<>(docByTrackId.size());
+        for (Track t : docs) {
+            if (t != null) {
+                live.add(t);
+            }
+        }
+        return live;
+    }
+
+    static Set<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptySet();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static boolean sameText(Track a, Track b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getArtist(), b.getArtist())
+                && Objects.equals(a.getAlbum(), b.getAlbum());
+    }
+
+    private static boolean sameMetadata(Track a, Track b) {
+        return sameText(a, b)
+                && Objects.equals(a.getPreviewUrl(), b.getPreviewUrl())
+                && a.getPopularity() == b.getPopularity()
+                && a.getDurationMs() == b.getDurationMs()
+                && a.isExplicit() == b.isExplicit()
+                && a.getReleaseYear() == b.getReleaseYear();
+    }
+}
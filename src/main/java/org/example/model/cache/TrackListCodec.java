@@ -0,0 +1,154 @@
+package org.example.model.cache;
+
+import org.example.model.domain.Track;
+import org.example.model.http.Validators;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a track list for {@link DiskCache}.
+ *
+ * Layout: [byte version][varint count] then per track five nullable strings
+ * (id, name, artist, album, previewUrl), each as varint(byteLength + 1)
+ * followed by UTF-8 bytes, with 0 meaning null, then varints popularity,
+ * durationMs, releaseYear and a byte for explicit.
+ *
+ * A search result is stored with the HTTP validators it was fetched with,
+ * so it can still be revalidated after a restart: [byte VALIDATORS_VERSION]
+ * then etag and lastModified as nullable strings, varint(maxAgeSeconds + 1)
+ * and varint bodyBytes, followed by the track list as above.
+ *
+ * Bump {@link #VERSION} (or {@link #VALIDATORS_VERSION}) whenever the layout
+ * changes: values written by an older version decode to null and are simply
+ * treated as cache misses.
+ */
+public final class TrackListCodec {
+
+    static final byte VERSION = 2;
+    static final byte VALIDATORS_VERSION = 3;
+
+    private TrackListCodec() {
+    }
+
+    public static byte[] encode(List<Track> tracks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + tracks.size() * 96);
+        out.write(VERSION);
+        writeVarInt(out, tracks.size());
+        for (Track t : tracks) {
+            writeString(out, t.getId());
+            writeString(out, t.getName());
+            writeString(out, t.getArtist());
+            writeString(out, t.getAlbum());
+            writeString(out, t.getPreviewUrl());
+            writeVarInt(out, t.getPopularity());
+            writeVarInt(out, t.getDurationMs());
+            writeVarInt(out, t.getReleaseYear());
+            out.write(t.isExplicit() ? 1 : 0);
+        }
+        return out.toByteArray();
+    }
+
+    /** A search result for the disk cache: {@code validators}, then {@code tracks}. */
+    public static byte[] encode(List<Track> tracks, Validators validators) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(VALIDATORS_VERSION);
+        writeString(out, validators.getEtag());
+        writeString(out, validators.getLastModified());
+        writeVarInt(out, (int) Math.max(0, Math.min(Integer.MAX_VALUE, validators.getMaxAgeSeconds() + 1)));
+        writeVarInt(out, (int) Math.max(0, Math.min(Integer.MAX_VALUE, validators.getBodyBytes())));
+        byte[] list = encode(tracks);
+        out.write(list, 0, list.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * The validators at the head of a value written by
+     * {@link #encode(List, Validators)}, leaving {@code in} at the track list
+     * for {@link #decode}. Null if the value is in another format or corrupt.
+     */
+    public static Validators decodeValidators(ByteBuffer in) {
+        try {
+            if (!in.hasRemaining() || in.get() != VALIDATORS_VERSION) {
+                return null;
+            }
+            String etag = readString(in);
+            String lastModified = readString(in);
+            long maxAgeSeconds = readVarInt(in) - 1L;
+            long bodyBytes = readVarInt(in);
+            return Validators.of(etag, lastModified, maxAgeSeconds, bodyBytes);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Decoded list, or null if the value was written in another format version or is corrupt. */
+    public static List<Track> decode(ByteBuffer in) {
+        try {
+            if (!in.hasRemaining() || in.get() != VERSION) {
+                return null;
+            }
+            int count = readVarInt(in);
+            List<Track> tracks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tracks.add(new Track()
+                        .setId(readString(in))
+                        .setName(readString(in))
+                        .setArtist(readString(in))
+                        .setAlbum(readString(in))
+                        .setPreviewUrl(readString(in))
+                        .setPopularity(readVarInt(in))
+                        .setDurationMs(readVarInt(in))
+                        .setReleaseYear(readVarInt(in))
+                        .setExplicit(in.get() != 0));
+            }
+            return tracks;
+        } catch (RuntimeException e) {
+            // BufferUnderflowException / IllegalArgumentException on a damaged value
+            return null;
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String s) {
+        if (s == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int n = readVarInt(in);
+        if (n == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[n - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -15,6 +15,12 @@ public class Track {
     private String album;
     private String previewUrl;
 
+    // Ranking signals; 0 / false when Spotify did not send them
+    private int popularity;
+    private int durationMs;
+    private boolean explicit;
+    private int releaseYear;
+
     public String getId() {
         return id;
     }
@@ -60,6 +66,44 @@ public class Track {
         return this;
     }
 
+    /** Spotify popularity, 0-100. */
+    public int getPopularity() {
+        return popularity;
+    }
+
+    public Track setPopularity(int popularity) {
+        this.popularity = Math.max(0, Math.min(100, popularity));
+        return this;
+    }
+
+    public int getDurationMs() {
+        return durationMs;
+    }
+
+    public Track setDurationMs(int durationMs) {
+        this.durationMs = Math.max(0, durationMs);
+        return this;
+    }
+
+    public boolean isExplicit() {
+        return explicit;
+    }
+
+    public Track setExplicit(boolean explicit) {
+        this.explicit = explicit;
+        return this;
+    }
+
+    /** Year of the album's release date, or 0 if unknown. */
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public Track setReleaseYear(int releaseYear) {
+        this.releaseYear = Math.max(0, releaseYear);
+        return this;
+    }
+
     private String safeTrim(String s) {
         return s == null ? null : s.trim();
     }
@@ -0,0 +1,175 @@
+package org.example.model.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches an OAuth access token and keeps it fresh.
+ *
+ * - Reads are lock-free: a valid token is returned straight from an atomic holder.
+ * - Only one refresh is ever in flight; every caller that needs a token waits on it.
+ * - A background refresh is scheduled shortly before the token expires, so
+ *   request threads normally never wait on the auth server at all.
+ * - {@link #invalidate(String)} drops a token the API rejected (HTTP 401).
+ */
+public class AccessTokenManager {
+
+    /** Fetches a brand-new token from the auth server (blocking). */
+    @FunctionalInterface
+    public interface TokenFetcher {
+        AccessToken fetch() throws IOException, InterruptedException;
+    }
+
+    /** Immutable token value + absolute expiry. */
+    public static final class AccessToken {
+
+        private final String value;
+        private final Instant expiresAt;
+
+        public AccessToken(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    // Never hand out a token this close to its expiry.
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(5);
+    // Delay before retrying a failed background refresh.
+    private static final Duration BACKGROUND_RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final TokenFetcher fetcher;
+    private final Duration refreshAhead;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicReference<AccessToken> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<AccessToken>> inFlight = new AtomicReference<>();
+    private volatile ScheduledFuture<?> scheduledRefresh;
+
+    public AccessTokenManager(TokenFetcher fetcher, Duration refreshAhead) {
+        this.fetcher = fetcher;
+        this.refreshAhead = refreshAhead;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "token-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns a valid token, waiting for the shared refresh only if
+     * there is no usable token cached.
+     */
+    public String getToken() throws IOException, InterruptedException {
+        AccessToken token = current.get();
+        if (isUsable(token)) {
+            return token.getValue();
+        }
+        try {
+            return refresh().get().getValue();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Token refresh failed", cause);
+        }
+    }
+
+    /** Non-blocking variant of {@link #getToken()}. */
+    public CompletableFuture<String> getTokenAsync() {
+        AccessToken token = current.get();
+        if (isUsable(token)) {
+            return CompletableFuture.completedFuture(token.getValue());
+        }
+        return refresh().thenApply(AccessToken::getValue);
+    }
+
+    /**
+     * Forget the given token if it is still the cached one (e.g. after a 401).
+     * A token that has already been replaced is left alone, so concurrent
+     * 401s for the same stale token trigger only one refresh.
+     */
+    public void invalidate(String rejectedToken) {
+        AccessToken token = current.get();
+        if (token != null && token.getValue().equals(rejectedToken)) {
+            current.compareAndSet(token, null);
+        }
+    }
+
+    private boolean isUsable(AccessToken token) {
+        return token != null && Instant.now().isBefore(token.getExpiresAt().minus(EXPIRY_SKEW));
+    }
+
+    /** Join the in-flight refresh, or start one if none is running. */
+    private CompletableFuture<AccessToken> refresh() {
+        while (true) {
+            CompletableFuture<AccessToken> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<AccessToken> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                scheduler.execute(() -> runFetch(mine));
+                return mine;
+            }
+        }
+    }
+
+    private void runFetch(CompletableFuture<AccessToken> target) {
+        try {
+            AccessToken token = fetcher.fetch();
+            current.set(token);
+            inFlight.compareAndSet(target, null);
+            scheduleProactiveRefresh(token);
+            target.complete(token);
+        } catch (Throwable t) {
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.compareAndSet(target, null);
+            target.completeExceptionally(t);
+        }
+    }
+
+    private void scheduleProactiveRefresh(AccessToken token) {
+        long lifetimeMs = Duration.between(Instant.now(), token.getExpiresAt()).toMillis();
+        long delayMs = lifetimeMs - refreshAhead.toMillis();
+        if (delayMs <= 0) {
+            // short-lived token: refresh halfway through its lifetime
+            delayMs = Math.max(0, lifetimeMs / 2);
+        }
+        scheduleBackgroundRefresh(delayMs);
+    }
+
+    private void scheduleBackgroundRefresh(long delayMs) {
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        scheduledRefresh = scheduler.schedule(() ->
+                refresh().whenComplete((token, error) -> {
+                    if (error != null && !(error instanceof CancellationException)
+                            && isUsable(current.get())) {
+                        // old token still good for a while; try again shortly
+                        scheduleBackgroundRefresh(BACKGROUND_RETRY_DELAY.toMillis());
+                    }
+                }), delayMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.model.http;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for one upstream host.
+ *
+ * CLOSED: calls flow; the outcome of the last {@code windowSize} calls is kept
+ * in a ring buffer. Once at least {@code minimumCalls} are recorded and either
+ * the failure rate or the slow-call rate crosses its threshold, the circuit opens.
+ *
+ * OPEN: calls are refused immediately with {@link ServiceUnavailableException}
+ * until {@code openDurationMs} has passed.
+ *
+ * HALF_OPEN: a few trial calls are let through. If they all succeed the circuit
+ * closes again; any failure re-opens it.
+ *
+ * State changes are rare and cheap, so a plain monitor per breaker is fine.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String host;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final int halfOpenTrialCalls;
+
+    // sliding window of outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public CircuitBreaker(String host, int windowSize, int minimumCalls,
+                          double failureRateThreshold, double slowCallRateThreshold,
+                          long slowCallMs, long openDurationMs, int halfOpenTrialCalls) {
+        this.host = host;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenTrialCalls = Math.max(1, halfOpenTrialCalls);
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+    }
+
+    /**
+     * Ask permission to make a call.
+     *
+     * @throws ServiceUnavailableException if the circuit is open
+     */
+    public synchronized void acquirePermission() throws ServiceUnavailableException {
+        if (state == State.OPEN) {
+            long elapsed = System.nanoTime() - openedAtNanos;
+            if (elapsed < openDurationNanos) {
+                throw new ServiceUnavailableException(host,
+                        TimeUnit.NANOSECONDS.toMillis(openDurationNanos - elapsed));
+            }
+            state = State.HALF_OPEN;
+            trialsInFlight = 0;
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= halfOpenTrialCalls) {
+                throw new ServiceUnavailableException(host, 0);
+            }
+            trialsInFlight++;
+        }
+    }
+
+    /**
+     * Give back a permission that was never used (the call was not sent,
+     * e.g. the rate limiter refused it or the caller cancelled).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && trialsInFlight > 0) {
+            trialsInFlight--;
+        }
+    }
+
+    /** Record the outcome of a permitted call. */
+    public synchronized void record(boolean success, long durationNanos) {
+        boolean isSlow = durationNanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success || isSlow) {
+                    open();
+                } else if (++trialSuccesses >= halfOpenTrialCalls) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                addToWindow(!success, isSlow);
+                if (recorded >= minimumCalls
+                        && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // late result from a call started before we opened; ignore
+            }
+        }
+    }
+
+    private void addToWindow(boolean isFailure, boolean isSlow) {
+        if (recorded == windowSize) {
+            if (failed[next]) failures--;
+            if (slow[next]) slowCalls--;
+        } else {
+            recorded++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        if (isFailure) failures++;
+        if (isSlow) slowCalls++;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+    }
+
+    private double failureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+
+    private double slowCallRate() {
+        return recorded == 0 ? 0.0 : (double) slowCalls / recorded;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{" +
+                "host='" + host + '\'' +
+                ", state=" + state +
+                ", failureRate=" + String.format("%.2f", failureRate()) +
+                ", slowCallRate=" + String.format("%.2f", slowCallRate()) +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.model.http;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte counters for compressed transfers: how much crossed the wire versus
+ * how much we handed to parsers after decompression.
+ */
+public class CompressionMetrics {
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder uncompressedResponses = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder decompressedBytes = new LongAdder();
+
+    void recordResponse(boolean compressed) {
+        (compressed ? compressedResponses : uncompressedResponses).increment();
+    }
+
+    void addCompressedBytes(long n) {
+        compressedBytes.add(n);
+    }
+
+    void addDecompressedBytes(long n) {
+        decompressedBytes.add(n);
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    public long getUncompressedResponses() {
+        return uncompressedResponses.sum();
+    }
+
+    /** Wire bytes of responses that arrived gzip/deflate encoded. */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /** Size of those same responses after decoding. */
+    public long getDecompressedBytes() {
+        return decompressedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionMetrics{" +
+                "compressedResponses=" + getCompressedResponses() +
+                ", uncompressedResponses=" + getUncompressedResponses() +
+                ", compressedBytes=" + getCompressedBytes() +
+                ", decompressedBytes=" + getDecompressedBytes() +
+                '}';
+    }
+}
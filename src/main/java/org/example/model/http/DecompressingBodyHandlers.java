@@ -0,0 +1,176 @@
+package org.example.model.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Body handlers that transparently decode {@code Content-Encoding: gzip/deflate}
+ * (java.net.http.HttpClient leaves that to us) and count wire vs decoded bytes.
+ *
+ * Pair them with an {@code Accept-Encoding} request header; responses that come
+ * back uncompressed pass through untouched.
+ */
+public final class DecompressingBodyHandlers {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private DecompressingBodyHandlers() {
+    }
+
+    /**
+     * Streamed body, decoded on the fly as the caller reads it.
+     * Decoding starts lazily so the handler itself never blocks.
+     */
+    public static HttpResponse.BodyHandler<InputStream> ofInputStream(CompressionMetrics metrics) {
+        return info -> {
+            String encoding = encodingOf(info.headers());
+            metrics.recordResponse(encoding != null);
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofInputStream(),
+                    raw -> encoding == null ? raw : new LazyDecodingStream(raw, encoding, metrics));
+        };
+    }
+
+    /** Whole body as a String, decoded from the buffered bytes. */
+    public static HttpResponse.BodyHandler<String> ofString(CompressionMetrics metrics) {
+        return info -> {
+            String encoding = encodingOf(info.headers());
+            Charset charset = charsetOf(info.headers());
+            metrics.recordResponse(encoding != null);
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofByteArray(),
+                    bytes -> {
+                        if (encoding == null) {
+                            return new String(bytes, charset);
+                        }
+                        try (InputStream in = new LazyDecodingStream(
+                                new ByteArrayInputStream(bytes), encoding, metrics)) {
+                            return new String(in.readAllBytes(), charset);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        };
+    }
+
+    /** "gzip" / "deflate", or null for identity / unknown encodings. */
+    static String encodingOf(HttpHeaders headers) {
+        String value = headers.firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "gzip", "x-gzip" -> "gzip";
+            case "deflate" -> "deflate";
+            default -> null;
+        };
+    }
+
+    private static Charset charsetOf(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse("");
+        for (String part : contentType.split(";")) {
+            String p = part.trim();
+            if (p.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                try {
+                    return Charset.forName(p.substring("charset=".length()).replace("\"", ""));
+                } catch (RuntimeException ignored) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Decoding stream created on first read: constructing a GZIPInputStream
+     * reads the header, which must not happen inside the body subscriber.
+     */
+    private static final class LazyDecodingStream extends InputStream {
+
+        private final InputStream raw;
+        private final String encoding;
+        private final CompressionMetrics metrics;
+        private InputStream decoded;
+
+        LazyDecodingStream(InputStream raw, String encoding, CompressionMetrics metrics) {
+            this.raw = new CountingStream(raw, metrics, true);
+            this.encoding = encoding;
+            this.metrics = metrics;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) {
+                InputStream inflating = "gzip".equals(encoding)
+                        ? new GZIPInputStream(raw, 8192)
+                        : new InflaterInputStream(raw);
+                decoded = new CountingStream(inflating, metrics, false);
+            }
+            return decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return decoded().read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                raw.close();
+            }
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+
+        private final CompressionMetrics metrics;
+        private final boolean wire;
+
+        CountingStream(InputStream in, CompressionMetrics metrics, boolean wire) {
+            super(in);
+            this.metrics = metrics;
+            this.wire = wire;
+        }
+
+        private void count(long n) {
+            if (n <= 0) {
+                return;
+            }
+            if (wire) {
+                metrics.addCompressedBytes(n);
+            } else {
+                metrics.addDecompressedBytes(n);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            count(n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.model.http;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when to send a second, identical copy of an idempotent GET.
+ *
+ * The hedge delay is a percentile (e.g. p95) of recent latencies to the same
+ * host: only the slowest few percent of calls get a backup request. Latencies
+ * are kept per host in two rotating histograms (current + previous window) so
+ * the estimate follows the upstream as it speeds up or slows down.
+ *
+ * Hedges are paid from a {@link RetryBudget}, which caps them at a fixed
+ * fraction of requests. During a general slowdown every call would qualify for
+ * a hedge; the budget stops that from doubling our load.
+ */
+public class HedgePolicy {
+
+    public static final long NO_HEDGE = -1;
+
+    private final double percentile;
+    private final long minDelayMs;
+    private final int minSamples;
+    private final long windowNanos;
+    private final RetryBudget budget;
+
+    private final Map<String, RecentLatencies> latencies = new ConcurrentHashMap<>();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    public HedgePolicy(double percentile, long minDelayMs, int minSamples,
+                       long windowMs, RetryBudget budget) {
+        this.percentile = percentile;
+        this.minDelayMs = Math.max(1, minDelayMs);
+        this.minSamples = Math.max(1, minSamples);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1_000, windowMs));
+        this.budget = budget;
+    }
+
+    /** Called once per hedgeable request. */
+    public void onRequest() {
+        budget.recordRequest();
+    }
+
+    /**
+     * How long to wait for the first attempt before hedging, or {@link #NO_HEDGE}
+     * while we have too few samples to know what "slow" means for this host.
+     */
+    public long hedgeDelayMs(String host) {
+        RecentLatencies recent = latencies.get(host);
+        if (recent == null) {
+            return NO_HEDGE;
+        }
+        long[] merged = recent.merged();
+        long samples = 0;
+        for (long c : merged) {
+            samples += c;
+        }
+        if (samples < minSamples) {
+            return NO_HEDGE;
+        }
+        return Math.max(minDelayMs, LatencyHistogram.percentile(merged, percentile));
+    }
+
+    /** Spend budget for one hedge; false means "don't hedge this one". */
+    public boolean tryAcquireHedge() {
+        if (budget.tryAcquireRetry()) {
+            hedgesSent.increment();
+            return true;
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    public void recordLatency(String host, long millis) {
+        latencies.computeIfAbsent(host, h -> new RecentLatencies()).record(millis);
+    }
+
+    public void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    /** Hedges that answered before the original request. */
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgePolicy{" +
+                "hedgesSent=" + getHedgesSent() +
+                ", hedgeWins=" + getHedgeWins() +
+                ", budgetExhausted=" + getBudgetExhausted() +
+                '}';
+    }
+
+    /** Two histograms that swap every window, so old samples age out. */
+    private final class RecentLatencies {
+
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous = new LatencyHistogram();
+        private volatile long windowStart = System.nanoTime();
+
+        void record(long millis) {
+            rotateIfDue();
+            current.record(millis);
+        }
+
+        long[] merged() {
+            rotateIfDue();
+            long[] a = current.snapshot();
+            long[] b = previous.snapshot();
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        }
+
+        private void rotateIfDue() {
+            long now = System.nanoTime();
+            if (now - windowStart < windowNanos) {
+                return;
+            }
+            synchronized (this) {
+                if (now - windowStart >= windowNanos) {
+                    previous = current;
+                    current = new LatencyHistogram();
+                    windowStart = now;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.model.http;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of millisecond durations with power-of-two buckets.
+ *
+ * Bucket 0 holds 0 ms, bucket i (i >= 1) holds [2^(i-1), 2^i) ms, and the last
+ * bucket collects everything above. Percentiles are reported as the upper
+ * bound of the bucket they fall in, which is plenty for dashboards and for
+ * picking timeouts.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 24; // last real bucket ends at ~2.3 hours
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMs = new LongAdder();
+
+    public void record(long millis) {
+        long ms = Math.max(0, millis);
+        counts.incrementAndGet(bucketFor(ms));
+        total.increment();
+        sumMs.add(ms);
+    }
+
+    static int bucketFor(long ms) {
+        if (ms == 0) {
+            return 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(ms); // 1 -> 1, 2..3 -> 2, 4..7 -> 3
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /** Exclusive upper bound (ms) of the given bucket. */
+    static long upperBoundOf(int bucket) {
+        return bucket == 0 ? 1 : 1L << bucket;
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public double getMeanMs() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : (double) sumMs.sum() / n;
+    }
+
+    /**
+     * Approximate percentile in ms, e.g. {@code percentile(0.99)}.
+     * Returns 0 when nothing has been recorded.
+     */
+    public long percentile(double quantile) {
+        return percentile(snapshot(), quantile);
+    }
+
+    /** Percentile over raw bucket counts (e.g. several merged snapshots). */
+    static long percentile(long[] snapshot, double quantile) {
+        long n = 0;
+        for (long c : snapshot) {
+            n += c;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * n);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank)) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    /** Copy of the bucket counts (index = bucket as described above). */
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + getCount() +
+                ", meanMs=" + String.format("%.1f", getMeanMs()) +
+                ", p50=" + percentile(0.50) +
+                ", p99=" + percentile(0.99) +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.model.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Wraps a response body stream and fails once more than {@code maxBytes}
+ * have been read, so a huge or runaway response cannot exhaust memory.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        int n = super.read(buf, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    private void advance(long n) throws IOException {
+        count += n;
+        if (count > maxBytes) {
+            throw new IOException("Response body exceeds limit of " + maxBytes + " bytes");
+        }
+    }
+
+    /** Bytes read so far. */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
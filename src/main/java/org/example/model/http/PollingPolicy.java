@@ -0,0 +1,105 @@
+package org.example.model.http;
+
+import java.util.Arrays;
+
+/**
+ * Decides when to poll a long-running task (a Suno generation) next.
+ *
+ * - Until enough completions have been seen, polls start at initialMs and
+ *   grow by multiplier per poll, capped at maxIntervalMs.
+ * - Once at least minSamples completion times are known, the schedule
+ *   follows them: no polls before the 10th percentile (one poll lands right
+ *   there), polls every initialMs between the 10th and 90th percentile where
+ *   most tasks finish, and exponential backoff after that.
+ * - The total time is bounded by deadlineMs, not a poll count; the last poll
+ *   is moved up to the deadline.
+ *
+ * Completion times are kept exactly for the last {@code SAMPLE_WINDOW}
+ * tasks - bucketed histograms are too coarse to schedule by. A delay of
+ * {@link #STOP} means the deadline has passed.
+ */
+public class PollingPolicy {
+
+    public static final long STOP = -1;
+    static final int SAMPLE_WINDOW = 64;
+
+    private final long initialMs;
+    private final long maxIntervalMs;
+    private final double multiplier;
+    private final long deadlineMs;
+    private final int minSamples;
+
+    // ring buffer of recent completion times (ms since polling started)
+    private final long[] samples = new long[SAMPLE_WINDOW];
+    private int sampleCount;
+    private int nextSample;
+
+    public PollingPolicy(long initialMs, long maxIntervalMs, double multiplier, long deadlineMs, int minSamples) {
+        this.initialMs = Math.max(1, initialMs);
+        this.maxIntervalMs = Math.max(this.initialMs, maxIntervalMs);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.deadlineMs = Math.max(this.initialMs, deadlineMs);
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Delay before the next poll, or {@link #STOP}.
+     *
+     * @param elapsedMs       time since polling started
+     * @param previousDelayMs delay used before the last poll (0 before the first)
+     */
+    public long nextDelayMs(long elapsedMs, long previousDelayMs) {
+        long remaining = deadlineMs - elapsedMs;
+        if (remaining <= 0) {
+            return STOP;
+        }
+
+        long delay = backoff(previousDelayMs);
+        long[] sorted = sortedSamples();
+        if (sorted.length >= minSamples) {
+            long early = quantile(sorted, 0.10);
+            long late = quantile(sorted, 0.90);
+            if (elapsedMs < early) {
+                // nothing usually finishes before this: one poll right when they start to
+                delay = Math.max(initialMs, early - elapsedMs);
+            } else if (elapsedMs <= late) {
+                // where most tasks finish: poll densely for fast detection
+                delay = initialMs;
+            }
+        }
+        return Math.min(delay, remaining);
+    }
+
+    private long backoff(long previousDelayMs) {
+        if (previousDelayMs <= 0) {
+            return initialMs;
+        }
+        return Math.min(maxIntervalMs, Math.max(initialMs, (long) (previousDelayMs * multiplier)));
+    }
+
+    /** Record how long a task took to finish (ms since polling started). */
+    public synchronized void recordCompletion(long elapsedMs) {
+        samples[nextSample] = Math.max(0, elapsedMs);
+        nextSample = (nextSample + 1) % SAMPLE_WINDOW;
+        sampleCount = Math.min(SAMPLE_WINDOW, sampleCount + 1);
+    }
+
+    private synchronized long[] sortedSamples() {
+        long[] copy = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static long quantile(long[] sorted, double q) {
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.model.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the client-side rate limiter refuses a request instead of
+ * queueing it (fail-fast mode, or the wait would exceed the configured maximum).
+ */
+public class RateLimitExceededException extends IOException {
+
+    private final String host;
+
+    public RateLimitExceededException(String host, long waitMs) {
+        super("Rate limit for " + host + " reached (next slot in " + waitMs + " ms)");
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.model.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries as a fraction of first attempts, so that during an outage
+ * retries cannot multiply the load we put on an upstream.
+ *
+ * Every first attempt deposits {@code ratio} tokens (up to {@code maxTokens});
+ * every retry withdraws one. When the budget is empty, retries are refused
+ * until normal traffic refills it. Lock-free: a single CAS per call.
+ */
+public class RetryBudget {
+
+    // tokens are stored in thousandths so we can use a plain AtomicLong
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.depositPerRequest = Math.max(0, Math.round(ratio * SCALE));
+        this.maxBalance = Math.max(1, maxTokens) * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /** Called once per logical request (not per retry). */
+    public void recordRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, add) -> Math.min(maxBalance, current + add));
+    }
+
+    /** Try to spend one retry token. */
+    public boolean tryAcquireRetry() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /** Remaining whole retries (for metrics / debugging). */
+    public long available() {
+        return balance.get() / SCALE;
+    }
+}
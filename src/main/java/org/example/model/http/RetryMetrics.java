@@ -0,0 +1,67 @@
+package org.example.model.http;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how much retrying the client is doing.
+ * All methods are thread-safe and cheap enough for the hot path.
+ */
+public class RetryMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder statusRetries = new LongAdder();
+    private final LongAdder ioRetries = new LongAdder();
+    private final LongAdder totalDelayMs = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    void recordRetry(boolean onStatus, long delayMs) {
+        retries.increment();
+        (onStatus ? statusRetries : ioRetries).increment();
+        totalDelayMs.add(delayMs);
+    }
+
+    void recordBudgetExhausted() {
+        budgetExhausted.increment();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getStatusRetries() {
+        return statusRetries.sum();
+    }
+
+    public long getIoRetries() {
+        return ioRetries.sum();
+    }
+
+    public long getTotalDelayMs() {
+        return totalDelayMs.sum();
+    }
+
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{" +
+                "requests=" + getRequests() +
+                ", retries=" + getRetries() +
+                ", statusRetries=" + getStatusRetries() +
+                ", ioRetries=" + getIoRetries() +
+                ", totalDelayMs=" + getTotalDelayMs() +
+                ", budgetExhausted=" + getBudgetExhausted() +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.model.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether (and how long after) a failed call should be retried.
+ *
+ * - Retries IO failures and a configurable set of HTTP statuses (e.g. 429, 503).
+ * - Delays use "decorrelated jitter": random between base and 3x the previous
+ *   delay, capped at maxDelay. This spreads retries out instead of having every
+ *   client hammer the upstream at the same instant.
+ * - A server-provided Retry-After is honored; if it asks us to wait longer than
+ *   maxRetryAfter we give up instead of holding the caller.
+ * - Every retry must be paid for from a shared {@link RetryBudget}.
+ *
+ * A delay of {@code -1} means "do not retry".
+ */
+public class RetryPolicy {
+
+    public static final long NO_RETRY = -1;
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final Set<Integer> retryableStatuses;
+    private final RetryBudget budget;
+    private final RetryMetrics metrics = new RetryMetrics();
+
+    public RetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs, long maxRetryAfterMs,
+                       Set<Integer> retryableStatuses, RetryBudget budget) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.retryableStatuses = Set.copyOf(retryableStatuses);
+        this.budget = budget;
+    }
+
+    /** Call once per logical request, before the first attempt. */
+    public void onRequest() {
+        metrics.recordRequest();
+        budget.recordRequest();
+    }
+
+    public boolean isRetryableStatus(int statusCode) {
+        return retryableStatuses.contains(statusCode);
+    }
+
+    /**
+     * IO-level failures are retried, except our own client-side refusals
+     * (retrying those would defeat their purpose). Subclasses may refine this.
+     */
+    public boolean isRetryableFailure(Throwable failure) {
+        return failure instanceof IOException
+                && !(failure instanceof RateLimitExceededException)
+                && !(failure instanceof ServiceUnavailableException);
+    }
+
+    /**
+     * Delay before retrying a response with the given status, or {@link #NO_RETRY}.
+     *
+     * @param attempt         zero-based index of the attempt that just finished
+     * @param previousDelayMs delay used before that attempt (0 for the first)
+     * @param retryAfter      raw Retry-After header value, may be null
+     */
+    public long delayAfterStatus(int attempt, long previousDelayMs, int statusCode, String retryAfter) {
+        if (!isRetryableStatus(statusCode) || attempt >= maxRetries) {
+            return NO_RETRY;
+        }
+        long delay = nextBackoffMs(previousDelayMs);
+        long serverDelay = parseRetryAfterMs(retryAfter);
+        if (serverDelay > maxRetryAfterMs) {
+            return NO_RETRY;
+        }
+        delay = Math.max(delay, serverDelay);
+        return spend(true, delay);
+    }
+
+    /** Delay before retrying after an exception, or {@link #NO_RETRY}. */
+    public long delayAfterFailure(int attempt, long previousDelayMs, Throwable failure) {
+        if (!isRetryableFailure(failure) || attempt >= maxRetries) {
+            return NO_RETRY;
+        }
+        return spend(false, nextBackoffMs(previousDelayMs));
+    }
+
+    private long spend(boolean onStatus, long delayMs) {
+        if (!budget.tryAcquireRetry()) {
+            metrics.recordBudgetExhausted();
+            return NO_RETRY;
+        }
+        metrics.recordRetry(onStatus, delayMs);
+        return delayMs;
+    }
+
+    /** Decorrelated jitter: random in [base, prev * 3], capped. */
+    long nextBackoffMs(long previousDelayMs) {
+        long prev = Math.max(baseDelayMs, previousDelayMs);
+        long upper = Math.min(maxDelayMs, prev * 3);
+        if (upper <= baseDelayMs) {
+            return baseDelayMs;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1);
+    }
+
+    /** Parses Retry-After as delta-seconds or an HTTP-date; 0 when absent/invalid. */
+    static long parseRetryAfterMs(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException ignored) {
+            // fall through to HTTP-date
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(Instant.now(), at.toInstant()).toMillis());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public RetryMetrics getMetrics() {
+        return metrics;
+    }
+}
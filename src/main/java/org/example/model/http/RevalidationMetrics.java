@@ -0,0 +1,52 @@
+package org.example.model.http;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for conditional GETs: how many were sent, how many the server
+ * answered with 304 Not Modified, and the body bytes those 304s saved us
+ * from downloading and parsing again.
+ */
+public class RevalidationMetrics {
+
+    private final LongAdder conditionalRequests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public void recordConditionalRequest() {
+        conditionalRequests.increment();
+    }
+
+    public void recordNotModified(long savedBytes) {
+        notModified.increment();
+        bytesSaved.add(savedBytes);
+    }
+
+    public long getConditionalRequests() {
+        return conditionalRequests.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    /** Share of conditional requests answered with 304. */
+    public double getHitRate() {
+        long sent = getConditionalRequests();
+        return sent == 0 ? 0.0 : (double) getNotModified() / sent;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RevalidationMetrics{" +
+                "conditionalRequests=" + getConditionalRequests() +
+                ", notModified=" + getNotModified() +
+                ", hitRate=" + String.format("%.2f", getHitRate()) +
+                ", bytesSaved=" + getBytesSaved() +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.model.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown without touching the network when an upstream's circuit breaker is
+ * open, i.e. recent calls to it have mostly failed or been very slow.
+ */
+public class ServiceUnavailableException extends IOException {
+
+    private final String host;
+    private final long retryAfterMs;
+
+    public ServiceUnavailableException(String host, long retryAfterMs) {
+        super(host + " is temporarily unavailable");
+        this.host = host;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /** Roughly how long until the breaker lets a trial call through. */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.model.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiter for one upstream host.
+ *
+ * Implemented as GCRA ("virtual scheduling"): the whole bucket state is a single
+ * timestamp, the theoretical arrival time of the next request, so a permit is
+ * one CAS with no locks. Callers reserve a slot and are told how long to wait;
+ * they either sleep/schedule for that long (queue mode) or get rejected when
+ * the wait exceeds {@code maxWaitMs} (0 = fail fast).
+ */
+public class TokenBucketRateLimiter {
+
+    private final String host;
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final long maxWaitNanos;
+
+    // theoretical arrival time of the next request (System.nanoTime() scale)
+    private final AtomicLong nextFreeNanos;
+
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            how many requests may go out back-to-back when idle
+     * @param maxWaitMs        longest a caller may be queued; 0 rejects instead of waiting
+     */
+    public TokenBucketRateLimiter(String host, double permitsPerSecond, int burst, long maxWaitMs) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        }
+        this.host = host;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = intervalNanos * (Math.max(1, burst) - 1L);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.nextFreeNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Reserve a permit.
+     *
+     * @return how long (ms) the caller must wait before sending
+     * @throws RateLimitExceededException if the wait would exceed the maximum
+     */
+    public long reserve() throws RateLimitExceededException {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = nextFreeNanos.get();
+            long startAt = Math.max(now, tat - burstToleranceNanos);
+            long waitNanos = startAt - now;
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                throw new RateLimitExceededException(host, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            long newTat = Math.max(tat, now) + intervalNanos;
+            if (nextFreeNanos.compareAndSet(tat, newTat)) {
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999);
+                waitHistogram.record(waitMs);
+                return waitMs;
+            }
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /** Distribution of time callers spent queued for a permit. */
+    public LatencyHistogram getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucketRateLimiter{" +
+                "host='" + host + '\'' +
+                ", rejected=" + getRejectedCount() +
+                ", waits=" + waitHistogram +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.model.http;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+
+/**
+ * HTTP cache validators kept next to a cached response: ETag, Last-Modified
+ * and Cache-Control, plus the size of the body they describe (used to count
+ * the bytes a 304 saved). Immutable.
+ */
+public final class Validators {
+
+    public static final Validators NONE = new Validators(null, null, -1, false, 0);
+
+    private final String etag;
+    private final String lastModified;
+    private final long maxAgeSeconds;
+    private final boolean noStore;
+    private final long bodyBytes;
+
+    private Validators(String etag, String lastModified, long maxAgeSeconds, boolean noStore, long bodyBytes) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.noStore = noStore;
+        this.bodyBytes = bodyBytes;
+    }
+
+    /** Validators kept with a stored response (see TrackListCodec); a stored response is never no-store. */
+    public static Validators of(String etag, String lastModified, long maxAgeSeconds, long bodyBytes) {
+        return new Validators(etag, lastModified, maxAgeSeconds, false, bodyBytes);
+    }
+
+    public static Validators from(HttpResponse<?> response) {
+        return from(response.headers());
+    }
+
+    public static Validators from(HttpHeaders headers) {
+        String etag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+
+        long maxAge = -1;
+        boolean noStore = false;
+        for (String value : headers.allValues("Cache-Control")) {
+            for (String directive : value.split(",")) {
+                String d = directive.trim().toLowerCase(Locale.ROOT);
+                if (d.equals("no-store")) {
+                    noStore = true;
+                } else if (d.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(d.substring("max-age=".length()).replace("\"", ""));
+                    } catch (NumberFormatException ignored) {
+                        // leave max-age unknown
+                    }
+                }
+            }
+        }
+        return new Validators(etag, lastModified, maxAge, noStore, 0);
+    }
+
+    /**
+     * Validators from a 304: per RFC 9111 the 304 may carry updated headers,
+     * and anything it omits stays as it was.
+     */
+    public Validators updatedBy(HttpResponse<?> notModified) {
+        Validators fresh = from(notModified);
+        return new Validators(
+                fresh.etag != null ? fresh.etag : etag,
+                fresh.lastModified != null ? fresh.lastModified : lastModified,
+                fresh.maxAgeSeconds >= 0 ? fresh.maxAgeSeconds : maxAgeSeconds,
+                fresh.noStore,
+                bodyBytes);
+    }
+
+    public Validators withBodyBytes(long bodyBytes) {
+        return new Validators(etag, lastModified, maxAgeSeconds, noStore, bodyBytes);
+    }
+
+    /** Add If-None-Match / If-Modified-Since so the server can answer 304. */
+    public HttpRequest.Builder applyTo(HttpRequest.Builder builder) {
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        return builder;
+    }
+
+    /** True when there is something to revalidate with. */
+    public boolean canRevalidate() {
+        return etag != null || lastModified != null;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /** Cache-Control max-age in seconds, or -1 when the server did not send one. */
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    public long getBodyBytes() {
+        return bodyBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "Validators{" +
+                "etag='" + etag + '\'' +
+                ", lastModified='" + lastModified + '\'' +
+                ", maxAgeSeconds=" + maxAgeSeconds +
+                ", noStore=" + noStore +
+                ", bodyBytes=" + bodyBytes +
+                '}';
+    }
+}
@@ -1,8 +1,14 @@
 package org.example.model.strategy;
 
+import org.example.model.CancellationToken;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
 import org.example.service.SpotifyService;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Abstract base class for recommendation strategies.
@@ -11,11 +17,50 @@ import java.util.Objects;
 public abstract class AbstractRecommendationStrategy implements RecommendationStrategy {
 
     protected final SpotifyService spotifyService;
+    protected final TrackRanker ranker;
 
     protected AbstractRecommendationStrategy(SpotifyService spotifyService) {
+        this(spotifyService, null);
+    }
+
+    /**
+     * With a ranker, a pool of {@link TrackRanker#getCandidatePoolSize()}
+     * search results is fetched and re-ranked locally against the user's
+     * query, and its best {@link TrackRanker#getTopK()} are shown.
+     */
+    protected AbstractRecommendationStrategy(SpotifyService spotifyService, TrackRanker ranker) {
         this.spotifyService = Objects.requireNonNull(spotifyService, "spotifyService");
+        this.ranker = ranker;
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query) throws IOException {
+        if (ranker == null) {
+            return spotifyService.searchTracks(toSearchQuery(query));
+        }
+        return getRecommendations(query, null, CancellationToken.NONE);
     }
 
+    /** Stale-while-revalidate through SpotifyService's search cache. */
+    @Override
+    public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh) throws IOException {
+        return getRecommendations(query, onRefresh, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh,
+                                          CancellationToken cancellation) throws IOException {
+        if (ranker == null) {
+            return spotifyService.searchTracks(toSearchQuery(query), onRefresh, cancellation);
+        }
+        Consumer<List<Track>> rankedRefresh = onRefresh == null ? null : pool -> onRefresh.accept(ranker.rank(query, pool));
+        return ranker.rank(query, spotifyService.searchTrackPool(toSearchQuery(query),
+                ranker.getCandidatePoolSize(), rankedRefresh, cancellation));
+    }
+
+    /** The Spotify search this strategy runs for the user's query. */
+    protected abstract UserQuery toSearchQuery(UserQuery query);
+
     /**
      * Helper to build a query string from the given field,
      * falling back to a default if necessary.
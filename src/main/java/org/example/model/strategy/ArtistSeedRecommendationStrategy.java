@@ -1,12 +1,8 @@
 package org.example.model.strategy;
 
-import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
 import org.example.service.SpotifyService;
 
-import java.io.IOException;
-import java.util.List;
-
 /**
  * Concrete strategy for artist-based recommendations.
  */
@@ -16,13 +12,16 @@ public class ArtistSeedRecommendationStrategy extends AbstractRecommendationStra
         super(spotifyService);
     }
 
+    public ArtistSeedRecommendationStrategy(SpotifyService spotifyService, TrackRanker ranker) {
+        super(spotifyService, ranker);
+    }
+
     @Override
-    public List<Track> getRecommendations(UserQuery query) throws IOException {
+    protected UserQuery toSearchQuery(UserQuery query) {
         String artist = query != null ? query.getArtist() : null;
         String fallback = query != null ? query.getText() : null;
         String finalQuery = buildQuery(artist, fallback);
 
-        UserQuery effective = new UserQuery().setText(finalQuery);
-        return spotifyService.searchTracks(effective);
+        return new UserQuery().setText(finalQuery);
     }
 }
@@ -1,12 +1,8 @@
 package org.example.model.strategy;
 
-import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
 import org.example.service.SpotifyService;
 
-import java.io.IOException;
-import java.util.List;
-
 /**
  * Concrete strategy for genre-based recommendations.
  */
@@ -16,13 +12,16 @@ public class GenreRecommendationStrategy extends AbstractRecommendationStrategy
         super(spotifyService);
     }
 
+    public GenreRecommendationStrategy(SpotifyService spotifyService, TrackRanker ranker) {
+        super(spotifyService, ranker);
+    }
+
     @Override
-    public List<Track> getRecommendations(UserQuery query) throws IOException {
+    protected UserQuery toSearchQuery(UserQuery query) {
         String genre = query != null ? query.getGenre() : null;
         String fallback = query != null ? query.getText() : null;
         String finalQuery = buildQuery(genre, fallback);
 
-        UserQuery effective = new UserQuery().setText(finalQuery);
-        return spotifyService.searchTracks(effective);
+        return new UserQuery().setText(finalQuery);
     }
 }
@@ -0,0 +1,254 @@
+package org.example.model.strategy;
+
+import org.example.model.APIClient;
+import org.example.model.CancellationToken;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.service.SpotifyService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Concrete strategy that combines mood, genre and artist searches.
+ *
+ * All applicable sub-searches run concurrently under one deadline, so the
+ * total latency is that of the slowest branch (or the deadline), not their
+ * sum. Branches still running at the deadline are cancelled and the others
+ * are used as a partial result. The lists are merged with weighted
+ * reciprocal rank fusion: a track scores weight / (60 + rank) for each list
+ * it appears in, and duplicates collapse into one entry. An optional
+ * {@link TrackRanker} then re-ranks the merged candidates.
+ *
+ * Branches answered from a stale cache entry are refreshed in the background
+ * like any other search; when one comes back changed, the fusion is redone
+ * with it and the new list is passed to {@code onRefresh}.
+ */
+public class HybridRecommendationStrategy implements RecommendationStrategy {
+
+    public static final long DEFAULT_DEADLINE_MS = 2500;
+    private static final int RRF_K = 60;
+
+    private final SpotifyService spotifyService;
+    private final long deadlineMs;
+    private final double moodWeight;
+    private final double genreWeight;
+    private final double artistWeight;
+    private final TrackRanker ranker;
+
+    public HybridRecommendationStrategy(SpotifyService spotifyService) {
+        this(spotifyService, DEFAULT_DEADLINE_MS, 1.0, 1.0, 1.0, null);
+    }
+
+    public HybridRecommendationStrategy(SpotifyService spotifyService, long deadlineMs,
+                                        double moodWeight, double genreWeight, double artistWeight) {
+        this(spotifyService, deadlineMs, moodWeight, genreWeight, artistWeight, null);
+    }
+
+    /** With a ranker, the fused list is re-ranked locally instead of kept in fusion order. */
+    public HybridRecommendationStrategy(SpotifyService spotifyService, long deadlineMs,
+                                        double moodWeight, double genreWeight, double artistWeight,
+                                        TrackRanker ranker) {
+        this.ranker = ranker;
+        this.spotifyService = Objects.requireNonNull(spotifyService, "spotifyService");
+        this.deadlineMs = Math.max(1, deadlineMs);
+        this.moodWeight = moodWeight;
+        this.genreWeight = genreWeight;
+        this.artistWeight = artistWeight;
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query) throws IOException {
+        return getRecommendations(query, null, CancellationToken.NONE);
+    }
+
+    /** Cancelling aborts every branch still running. */
+    @Override
+    public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh,
+                                          CancellationToken cancellation) throws IOException {
+        List<Branch> branches = branchesFor(query);
+        if (branches.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // latest list per branch; null for branches left out (failed or past the deadline).
+        // A refresh only follows a successful answer, so it never revives a left-out branch.
+        List<List<Track>> latest = new ArrayList<>(Collections.nCopies(branches.size(), null));
+        boolean[] published = new boolean[1];
+        List<CompletableFuture<List<Track>>> running = new ArrayList<>();
+        for (int i = 0; i < branches.size(); i++) {
+            int index = i;
+            Consumer<List<Track>> branchRefresh = onRefresh == null ? null : refreshed -> {
+                List<Track> fused;
+                synchronized (latest) {
+                    latest.set(index, refreshed);
+                    if (!published[0]) {
+                        return; // the first answer will already include it
+                    }
+                    fused = fuseAndRank(query, latest, branches);
+                }
+                onRefresh.accept(fused);
+            };
+            running.add(cancellation.bind(spotifyService.searchTracksAsync(
+                    new UserQuery().setText(branches.get(i).searchText), branchRefresh)));
+        }
+
+        try {
+            CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0]))
+                    .get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException | CancellationException e) {
+            // deadline hit or a branch failed: use whatever finished
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for recommendations", e);
+        } finally {
+            // nothing outlives this call
+            for (CompletableFuture<List<Track>> f : running) {
+                f.cancel(true);
+            }
+        }
+        cancellation.throwIfCancelled();
+
+        Throwable firstFailure = null;
+        boolean anyFinished = false;
+        for (int i = 0; i < running.size(); i++) {
+            CompletableFuture<List<Track>> f = running.get(i);
+            if (f.isCancelled()) {
+                continue;
+            }
+            try {
+                List<Track> tracks = f.join();
+                synchronized (latest) {
+                    if (latest.get(i) == null) { // unless a refresh already replaced it
+                        latest.set(i, tracks);
+                    }
+                }
+                anyFinished = true;
+            } catch (RuntimeException e) {
+                if (firstFailure == null) {
+                    firstFailure = APIClient.unwrap(e);
+                }
+            }
+        }
+
+        if (!anyFinished) {
+            if (firstFailure instanceof IOException io) {
+                throw io;
+            }
+            if (firstFailure != null) {
+                throw new IOException("Recommendation search failed", firstFailure);
+            }
+            throw new IOException("No recommendation search finished within " + deadlineMs + " ms");
+        }
+        synchronized (latest) {
+            published[0] = true;
+            return fuseAndRank(query, latest, branches);
+        }
+    }
+
+    /** Fuse the branches that have a list (callers hold the lock on {@code latest}). */
+    private List<Track> fuseAndRank(UserQuery query, List<List<Track>> latest, List<Branch> branches) {
+        List<List<Track>> rankings = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (int i = 0; i < latest.size(); i++) {
+            if (latest.get(i) != null) {
+                rankings.add(latest.get(i));
+                weights.add(branches.get(i).weight);
+            }
+        }
+        List<Track> fused = fuse(rankings, weights);
+        return ranker == null ? fused : ranker.rank(query, fused);
+    }
+
+    /**
+     * One search per applicable field. Genre and artist use Spotify's field
+     * filters; a query with only free text runs all three views of that text.
+     */
+    List<Branch> branchesFor(UserQuery query) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        String text = query.getText();
+        String mood = firstNonBlank(query.getMood(), text);
+        String genre = firstNonBlank(query.getGenre(), text);
+        String artist = firstNonBlank(query.getArtist(), text);
+
+        Map<String, Branch> branches = new LinkedHashMap<>();
+        if (mood != null) {
+            branches.putIfAbsent(mood, new Branch(mood, moodWeight));
+        }
+        if (genre != null) {
+            String filtered = "genre:\"" + genre + "\"";
+            branches.putIfAbsent(filtered, new Branch(filtered, genreWeight));
+        }
+        if (artist != null) {
+            String filtered = "artist:\"" + artist + "\"";
+            branches.putIfAbsent(filtered, new Branch(filtered, artistWeight));
+        }
+        return new ArrayList<>(branches.values());
+    }
+
+    /** Weighted reciprocal rank fusion, de-duplicated by track id. */
+    static List<Track> fuse(List<List<Track>> rankings, List<Double> weights) {
+        Map<String, Track> tracks = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+
+        for (int i = 0; i < rankings.size(); i++) {
+            double weight = weights.get(i);
+            List<Track> ranking = rankings.get(i);
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                Track track = ranking.get(rank);
+                String key = track.getId() != null ? track.getId() : track.getName() + "\u0000" + track.getArtist();
+                tracks.putIfAbsent(key, track);
+                scores.merge(key, weight / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+
+        List<String> keys = new ArrayList<>(tracks.keySet());
+        // stable: ties keep first-seen order
+        keys.sort(Comparator.comparingDouble((String k) -> scores.get(k)).reversed());
+
+        List<Track> fused = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            fused.add(tracks.get(key));
+        }
+        return Collections.unmodifiableList(fused);
+    }
+
+    private static String firstNonBlank(String preferred, String fallback) {
+        if (preferred != null && !preferred.isBlank()) {
+            return preferred.trim();
+        }
+        if (fallback != null && !fallback.isBlank()) {
+            return fallback.trim();
+        }
+        return null;
+    }
+
+    static final class Branch {
+        final String searchText;
+        final double weight;
+
+        Branch(String searchText, double weight) {
+            this.searchText = searchText;
+            this.weight = weight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HybridRecommendationStrategy";
+    }
+}
@@ -1,11 +1,14 @@
 package org.example.model.strategy;
 
+import org.example.model.APIClient;
+import org.example.model.CancellationToken;
 import org.example.model.domain.GenerationResult;
 import org.example.model.domain.UserQuery;
 import org.example.service.SunoService;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Concrete strategy that delegates to Suno/MusicAPI to generate
@@ -21,19 +24,39 @@ public class InstrumentalGenerationStrategy implements MusicGenerationStrategy {
 
     @Override
     public GenerationResult generate(UserQuery query) throws IOException {
-        // Two-step flow: create + poll
-        GenerationResult initial = sunoService.requestInstrumental(query);
+        return generate(query, CancellationToken.NONE);
+    }
 
-        if (initial != null && initial.getAudioUrl() != null) {
-            // Sometimes the API returns an audio URL immediately
-            return initial;
-        }
-        if (initial == null || initial.getTaskId() == null) {
-            return new GenerationResult()
-                    .setStatus("error")
-                    .setAudioUrl(null);
+    /** Cancelling aborts the create request or stops polling, whichever is under way. */
+    @Override
+    public GenerationResult generate(UserQuery query, CancellationToken cancellation) throws IOException {
+        try {
+            return APIClient.await(generateAsync(query, cancellation), cancellation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating", e);
         }
-        return sunoService.pollGenerationStatus(initial.getTaskId());
+    }
+
+    /**
+     * Create + poll without holding a thread: the task is left to the
+     * service's {@link org.example.service.GenerationTracker} once created.
+     */
+    @Override
+    public CompletableFuture<GenerationResult> generateAsync(UserQuery query, CancellationToken cancellation) {
+        return cancellation.bind(APIClient.thenComposeCancellable(sunoService.requestInstrumentalAsync(query),
+                initial -> {
+                    if (initial != null && initial.getAudioUrl() != null) {
+                        // Sometimes the API returns an audio URL immediately
+                        return CompletableFuture.completedFuture(initial);
+                    }
+                    if (initial == null || initial.getTaskId() == null) {
+                        return CompletableFuture.completedFuture(new GenerationResult()
+                                .setStatus("error")
+                                .setAudioUrl(null));
+                    }
+                    return sunoService.pollGenerationStatusAsync(initial.getTaskId());
+                }));
     }
 
     @Override
@@ -0,0 +1,99 @@
+package org.example.model.strategy;
+
+import org.example.model.CancellationToken;
+import org.example.model.cache.TrackIndex;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Concrete strategy that answers from the local {@link TrackIndex} first.
+ *
+ * If at least {@code minResults} indexed tracks match every word of the
+ * query, they are returned without touching the network. Otherwise the
+ * query goes to the {@code fallback} strategy (whose results are indexed in
+ * turn). If that fails - typically because the network is down - the best
+ * partial local matches are returned instead, so the app stays usable
+ * offline for anything it has seen before.
+ */
+public class LocalIndexRecommendationStrategy implements RecommendationStrategy {
+
+    public static final int DEFAULT_MIN_RESULTS = 5;
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final TrackIndex index;
+    private final RecommendationStrategy fallback;
+    private final int minResults;
+    private final int limit;
+    private final TrackRanker ranker;
+
+    public LocalIndexRecommendationStrategy(TrackIndex index, RecommendationStrategy fallback) {
+        this(index, fallback, DEFAULT_MIN_RESULTS, DEFAULT_LIMIT, null);
+    }
+
+    public LocalIndexRecommendationStrategy(TrackIndex index, RecommendationStrategy fallback,
+                                            int minResults, int limit, TrackRanker ranker) {
+        this.index = Objects.requireNonNull(index, "index");
+        this.fallback = Objects.requireNonNull(fallback, "fallback");
+        this.minResults = Math.max(1, minResults);
+        this.limit = Math.max(1, limit);
+        this.ranker = ranker;
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query) throws IOException {
+        return getRecommendations(query, null);
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh) throws IOException {
+        return getRecommendations(query, onRefresh, CancellationToken.NONE);
+    }
+
+    @Override
+    public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh,
+                                          CancellationToken cancellation) throws IOException {
+        String text = searchText(query);
+        List<Track> local = index.search(text, limit);
+        if (local.size() >= minResults) {
+            return rank(query, local);
+        }
+
+        try {
+            return fallback.getRecommendations(query, onRefresh, cancellation);
+        } catch (IOException e) {
+            List<Track> partial = local.isEmpty() ? index.searchAny(text, limit) : local;
+            if (partial.isEmpty()) {
+                throw e;
+            }
+            return rank(query, partial);
+        }
+    }
+
+    /** Words of text, mood and artist; tracks carry no genre to match against. */
+    static String searchText(UserQuery query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String field : new String[]{query.getText(), query.getMood(), query.getArtist()}) {
+            if (field != null && !field.isBlank()) {
+                sb.append(field).append(' ');
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    private List<Track> rank(UserQuery query, List<Track> tracks) {
+        return ranker == null ? tracks : ranker.rank(query, tracks);
+    }
+
+    @Override
+    public String toString() {
+        return "LocalIndexRecommendationStrategy";
+    }
+}
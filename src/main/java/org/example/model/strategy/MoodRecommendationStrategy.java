@@ -1,13 +1,9 @@
 package org.example.model.strategy;
 
-import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
 import org.example.model.strategy.AbstractRecommendationStrategy;
 import org.example.service.SpotifyService;
 
-import java.io.IOException;
-import java.util.List;
-
 /**
  * Concrete strategy for mood-based recommendations.
  */
@@ -17,14 +13,17 @@ public class MoodRecommendationStrategy extends AbstractRecommendationStrategy {
         super(spotifyService);
     }
 
+    public MoodRecommendationStrategy(SpotifyService spotifyService, TrackRanker ranker) {
+        super(spotifyService, ranker);
+    }
+
     @Override
-    public List<Track> getRecommendations(UserQuery query) throws IOException {
+    protected UserQuery toSearchQuery(UserQuery query) {
         // Mood has priority; fall back to general text if needed.
         String mood = query != null ? query.getMood() : null;
         String fallback = query != null ? query.getText() : null;
         String finalQuery = buildQuery(mood, fallback);
 
-        UserQuery effective = new UserQuery().setText(finalQuery);
-        return spotifyService.searchTracks(effective);
+        return new UserQuery().setText(finalQuery);
     }
 }
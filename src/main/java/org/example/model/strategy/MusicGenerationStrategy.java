@@ -1,9 +1,12 @@
 package org.example.model.strategy;
 
+import org.example.model.CancellationToken;
 import org.example.model.domain.GenerationResult;
 import org.example.model.domain.UserQuery;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Abstraction for music generation behavior.
@@ -11,4 +14,25 @@ import java.io.IOException;
 public interface MusicGenerationStrategy {
 
     GenerationResult generate(UserQuery query) throws IOException;
+
+    /** Cancellable variant; by default the token is only checked before starting. */
+    default GenerationResult generate(UserQuery query, CancellationToken cancellation) throws IOException {
+        cancellation.throwIfCancelled();
+        return generate(query);
+    }
+
+    /**
+     * Non-blocking variant. By default this runs {@link #generate(UserQuery,
+     * CancellationToken)} on the common pool; strategies backed by async
+     * services override it so no thread waits while the music is made.
+     */
+    default CompletableFuture<GenerationResult> generateAsync(UserQuery query, CancellationToken cancellation) {
+        return cancellation.bind(CompletableFuture.supplyAsync(() -> {
+            try {
+                return generate(query, cancellation);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
 }
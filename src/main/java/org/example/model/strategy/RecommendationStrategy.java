@@ -1,10 +1,12 @@
 package org.example.model.strategy;
 
+import org.example.model.CancellationToken;
 import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Abstraction for how recommendations are generated.
@@ -13,4 +15,24 @@ import java.util.List;
 public interface RecommendationStrategy {
 
     List<Track> getRecommendations(UserQuery query) throws IOException;
+
+    /**
+     * Cached variant for the UI: may return a slightly old list immediately
+     * and hand a refreshed one to {@code onRefresh} later, if it differs.
+     * Strategies without such a cache just ignore the callback.
+     */
+    default List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh) throws IOException {
+        return getRecommendations(query);
+    }
+
+    /**
+     * Cancellable variant: once {@code cancellation} fires, requests still in
+     * flight are aborted and a CancellationException is thrown. Strategies
+     * that cannot abort midway only check the token before starting.
+     */
+    default List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh,
+                                           CancellationToken cancellation) throws IOException {
+        cancellation.throwIfCancelled();
+        return getRecommendations(query, onRefresh);
+    }
 }
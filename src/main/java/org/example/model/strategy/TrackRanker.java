@@ -0,0 +1,213 @@
+package org.example.model.strategy;
+
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Local re-ranking of recommendation candidates.
+ *
+ * Each track gets a score from:
+ * - text match: share of the query's words (text, mood, genre, artist)
+ *   found in the track's name, artist or album;
+ * - popularity: Spotify's 0-100 popularity;
+ * - recency: halves every recencyHalfLifeYears since release.
+ * The best candidates are kept with a bounded min-heap, then picked greedily
+ * so that each further track by an artist already picked loses
+ * diversityPenalty - a list is not all one artist unless the scores say so.
+ *
+ * Large candidate sets are scored in parallel on the common ForkJoin pool.
+ * A few hundred candidates rank in well under a millisecond.
+ */
+public class TrackRanker {
+
+    private static final int PARALLEL_THRESHOLD = 2048;
+    // keep this many times topK from the first pass so diversity has room to work
+    private static final int CANDIDATE_FACTOR = 3;
+
+    private double textWeight = 1.0;
+    private double popularityWeight = 0.5;
+    private double recencyWeight = 0.2;
+    private double diversityPenalty = 0.3;
+    private double recencyHalfLifeYears = 10;
+    private int topK = 50;
+    // 0 means topK times the candidate factor
+    private int candidatePoolSize;
+
+    public TrackRanker setTextWeight(double textWeight) {
+        this.textWeight = textWeight;
+        return this;
+    }
+
+    public TrackRanker setPopularityWeight(double popularityWeight) {
+        this.popularityWeight = popularityWeight;
+        return this;
+    }
+
+    public TrackRanker setRecencyWeight(double recencyWeight) {
+        this.recencyWeight = recencyWeight;
+        return this;
+    }
+
+    public TrackRanker setDiversityPenalty(double diversityPenalty) {
+        this.diversityPenalty = Math.max(0, diversityPenalty);
+        return this;
+    }
+
+    public TrackRanker setRecencyHalfLifeYears(double recencyHalfLifeYears) {
+        this.recencyHalfLifeYears = Math.max(0.1, recencyHalfLifeYears);
+        return this;
+    }
+
+    public TrackRanker setTopK(int topK) {
+        this.topK = Math.max(1, topK);
+        return this;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Cap on how many search results to fetch for ranking. Every page of
+     * results is another upstream request, so one page is usually enough.
+     */
+    public TrackRanker setCandidatePoolSize(int candidatePoolSize) {
+        this.candidatePoolSize = Math.max(0, candidatePoolSize);
+        return this;
+    }
+
+    /**
+     * How many candidates to fetch: the configured pool size (never below
+     * topK), or by default topK times the candidate factor so the first
+     * pass and diversity have room.
+     */
+    public int getCandidatePoolSize() {
+        return candidatePoolSize > 0 ? Math.max(candidatePoolSize, topK) : topK * CANDIDATE_FACTOR;
+    }
+
+    /** The best {@code topK} candidates for query, best first. */
+    public List<Track> rank(UserQuery query, List<Track> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] terms = termsOf(query);
+        int currentYear = Year.now().getValue();
+
+        double[] scores = new double[candidates.size()];
+        if (candidates.size() >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(scores, i -> score(candidates.get(i), terms, currentYear));
+        } else {
+            Arrays.setAll(scores, i -> score(candidates.get(i), terms, currentYear));
+        }
+
+        List<Integer> shortlist = topIndices(scores, Math.min(candidates.size(), topK * CANDIDATE_FACTOR));
+        return pickDiverse(candidates, scores, shortlist);
+    }
+
+    double score(Track track, String[] terms, int currentYear) {
+        double text = 0;
+        if (terms.length > 0) {
+            String haystack = (nullToEmpty(track.getName()) + ' ' + nullToEmpty(track.getArtist()) + ' '
+                    + nullToEmpty(track.getAlbum())).toLowerCase(Locale.ROOT);
+            int matched = 0;
+            for (String term : terms) {
+                if (haystack.contains(term)) {
+                    matched++;
+                }
+            }
+            text = (double) matched / terms.length;
+        }
+
+        double popularity = track.getPopularity() / 100.0;
+
+        double recency = 0;
+        if (track.getReleaseYear() > 0) {
+            int age = Math.max(0, currentYear - track.getReleaseYear());
+            recency = Math.pow(0.5, age / recencyHalfLifeYears);
+        }
+
+        return textWeight * text + popularityWeight * popularity + recencyWeight * recency;
+    }
+
+    /** Indices of the n highest scores, via a min-heap never larger than n. */
+    private static List<Integer> topIndices(double[] scores, int n) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(n + 1,
+                (a, b) -> a.equals(b) ? 0 : scores[a] != scores[b] ? Double.compare(scores[a], scores[b]) : Integer.compare(b, a));
+        for (int i = 0; i < scores.length; i++) {
+            if (heap.size() < n) {
+                heap.add(i);
+            } else if (scores[i] > scores[heap.peek()]) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        return new ArrayList<>(heap);
+    }
+
+    /**
+     * Greedy pick with a per-artist penalty. Picked artists only ever make
+     * scores worse, so a lazily re-scored max-heap finds the best next track.
+     */
+    private List<Track> pickDiverse(List<Track> candidates, double[] scores, List<Integer> shortlist) {
+        Map<String, Integer> picksByArtist = new HashMap<>();
+        // entries: {adjusted score, index, artist count when scored}
+        PriorityQueue<double[]> heap = new PriorityQueue<>(shortlist.size() + 1,
+                (a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+        for (int i : shortlist) {
+            heap.add(new double[]{scores[i], i, 0});
+        }
+
+        List<Track> ranked = new ArrayList<>(Math.min(topK, shortlist.size()));
+        while (!heap.isEmpty() && ranked.size() < topK) {
+            double[] top = heap.poll();
+            int index = (int) top[1];
+            String artist = artistKey(candidates.get(index));
+            int picked = picksByArtist.getOrDefault(artist, 0);
+            if (picked != (int) top[2]) {
+                heap.add(new double[]{scores[index] - diversityPenalty * picked, index, picked});
+                continue;
+            }
+            ranked.add(candidates.get(index));
+            picksByArtist.put(artist, picked + 1);
+        }
+        return ranked;
+    }
+
+    private static String[] termsOf(UserQuery query) {
+        if (query == null) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String field : new String[]{query.getText(), query.getMood(), query.getGenre(), query.getArtist()}) {
+            if (field == null) {
+                continue;
+            }
+            for (String word : field.toLowerCase(Locale.ROOT).split("\\W+")) {
+                if (word.length() > 1) {
+                    terms.add(word);
+                }
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    private static String artistKey(Track track) {
+        return track.getArtist() == null ? "" : track.getArtist().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+}
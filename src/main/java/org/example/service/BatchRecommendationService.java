@@ -0,0 +1,144 @@
+package org.example.service;
+
+import org.example.model.APIClient;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.model.strategy.RecommendationStrategy;
+import org.example.service.MusicServiceFactory.RecommendationMode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs recommendations for many queries at once (e.g. a nightly job over
+ * thousands of mood/genre combinations).
+ *
+ * At most {@code maxConcurrency} queries run at a time, each on its own
+ * worker thread. All of them go through the same strategy objects, so they
+ * share the Spotify token, the search caches and the per-host rate limiter;
+ * throughput grows with the cap until that limiter is the bottleneck.
+ * A failing query is reported in its {@link Result} and does not stop the
+ * rest of the batch.
+ */
+public class BatchRecommendationService {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+    private final MusicServiceFactory factory;
+    private final int maxConcurrency;
+
+    public BatchRecommendationService(MusicServiceFactory factory, int maxConcurrency) {
+        this.factory = factory;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    public List<Result> getRecommendations(List<UserQuery> queries, RecommendationMode mode) throws IOException {
+        return getRecommendations(queries, factory.createRecommendationStrategy(mode), result -> { });
+    }
+
+    /**
+     * Results come back in the order of {@code queries}; {@code onResult} is
+     * called (from a worker thread) as each one finishes, for progress reporting.
+     */
+    public List<Result> getRecommendations(List<UserQuery> queries, RecommendationStrategy strategy,
+                                           Consumer<Result> onResult) throws IOException {
+        if (queries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(maxConcurrency, queries.size()), r -> {
+            Thread t = new Thread(r, "batch-recommendation-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<Result>> futures = new ArrayList<>(queries.size());
+            for (UserQuery query : queries) {
+                futures.add(pool.submit(() -> {
+                    Result result = run(strategy, query);
+                    onResult.accept(result);
+                    return result;
+                }));
+            }
+
+            List<Result> results = new ArrayList<>(queries.size());
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running batch recommendations", e);
+        } catch (ExecutionException e) {
+            // only reachable if onResult itself throws
+            throw new IOException("Batch recommendation callback failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Result run(RecommendationStrategy strategy, UserQuery query) {
+        long start = System.nanoTime();
+        try {
+            List<Track> tracks = strategy.getRecommendations(query);
+            return new Result(query, tracks, null, System.nanoTime() - start);
+        } catch (Exception e) {
+            return new Result(query, Collections.emptyList(), APIClient.unwrap(e), System.nanoTime() - start);
+        }
+    }
+
+    public static int countFailures(List<Result> results) {
+        int failures = 0;
+        for (Result result : results) {
+            if (!result.isSuccess()) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /** Outcome of one query in a batch: its tracks, or the error that stopped it. */
+    public static final class Result {
+        private final UserQuery query;
+        private final List<Track> tracks;
+        private final Throwable error;
+        private final long durationNanos;
+
+        Result(UserQuery query, List<Track> tracks, Throwable error, long durationNanos) {
+            this.query = query;
+            this.tracks = tracks;
+            this.error = error;
+            this.durationNanos = durationNanos;
+        }
+
+        public UserQuery getQuery() {
+            return query;
+        }
+
+        public List<Track> getTracks() {
+            return tracks;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.model.domain.GenerationResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Small embedded HTTP endpoint that receives MusicAPI task-completion
+ * callbacks, so a finished generation is picked up at once instead of on
+ * the next poll.
+ *
+ * {@link #getCallbackUrl()} is what {@link SunoService} sends as
+ * {@code callback_url}. It carries a random per-run token; callbacks
+ * without it are rejected, so nobody who merely finds the port can complete
+ * tasks. MusicAPI has to be able to reach the URL, which normally means
+ * setting a public base URL (a tunnel or reverse proxy) in front of the
+ * locally bound port.
+ */
+public class GenerationCallbackServer implements AutoCloseable {
+
+    // a completion payload is a few KB; anything much bigger is not MusicAPI
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String path;
+    private final String token;
+    private final String callbackUrl;
+    private volatile Consumer<GenerationResult> listener = result -> { };
+
+    private GenerationCallbackServer(HttpServer server, ExecutorService executor, String path,
+                                     String publicBaseUrl) {
+        this.server = server;
+        this.executor = executor;
+        this.path = path;
+        byte[] secret = new byte[16];
+        new SecureRandom().nextBytes(secret);
+        this.token = HexFormat.of().formatHex(secret);
+
+        String base = publicBaseUrl == null || publicBaseUrl.isBlank()
+                ? "http://localhost:" + server.getAddress().getPort()
+                : publicBaseUrl.trim();
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        this.callbackUrl = base + path + "?token=" + token;
+    }
+
+    /**
+     * Bind to {@code bindHost:port} (port 0 picks a free one) and start
+     * serving callbacks at {@code path}.
+     *
+     * @param publicBaseUrl how MusicAPI reaches this server, e.g.
+     *                      {@code https://my-tunnel.example.com}; blank means
+     *                      {@code http://localhost:<port>}
+     */
+    public static GenerationCallbackServer start(String bindHost, int port, String path,
+                                                 String publicBaseUrl) throws IOException {
+        String normalizedPath = path == null || path.isBlank() ? "/" : path.trim();
+        if (!normalizedPath.startsWith("/")) {
+            normalizedPath = "/" + normalizedPath;
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(bindHost, port), 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "generation-callbacks");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+
+        GenerationCallbackServer callbacks =
+                new GenerationCallbackServer(server, executor, normalizedPath, publicBaseUrl);
+        server.createContext(normalizedPath, callbacks::handle);
+        server.start();
+        return callbacks;
+    }
+
+    /** Receives every accepted callback's result (on the server's thread). */
+    public void onCallback(Consumer<GenerationResult> listener) {
+        this.listener = listener == null ? result -> { } : listener;
+    }
+
+    /** URL, including the token, for MusicAPI to POST completions to. */
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!path.equals(exchange.getRequestURI().getPath())) {
+                respond(exchange, 404, "not found");
+                return;
+            }
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "method not allowed");
+                return;
+            }
+            if (!hasValidToken(exchange.getRequestURI().getRawQuery())) {
+                respond(exchange, 403, "forbidden");
+                return;
+            }
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respond(exchange, 413, "payload too large");
+                return;
+            }
+            GenerationResult result;
+            try {
+                result = parseCallback(new String(body, StandardCharsets.UTF_8));
+            } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                respond(exchange, 400, "malformed callback");
+                return;
+            }
+            if (result.getTaskId() == null) {
+                respond(exchange, 400, "missing task_id");
+                return;
+            }
+
+            listener.accept(result);
+            respond(exchange, 200, "ok");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean hasValidToken(String rawQuery) {
+        if (rawQuery == null) {
+            return false;
+        }
+        for (String param : rawQuery.split("&")) {
+            if (param.startsWith("token=")) {
+                byte[] given = param.substring("token=".length()).getBytes(StandardCharsets.UTF_8);
+                return MessageDigest.isEqual(given, token.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return false;
+    }
+
+    /** The body, or null when it is longer than {@link #MAX_BODY_BYTES}. */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Parse a MusicAPI callback: the same shape as a task status response
+     * ({@code { task_id, message, data: [ { state, audio_url, ... } ] }}),
+     * with task_id either at the top level or on the clip.
+     */
+    static GenerationResult parseCallback(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+
+        String taskId = string(root, "task_id");
+        String state = string(root, "message");
+        String audioUrl = null;
+
+        if (root.has("data") && root.get("data").isJsonArray()) {
+            JsonArray arr = root.getAsJsonArray("data");
+            if (arr.size() > 0 && arr.get(0).isJsonObject()) {
+                JsonObject item = arr.get(0).getAsJsonObject();
+                if (taskId == null) {
+                    taskId = string(item, "task_id");
+                }
+                String itemState = string(item, "state");
+                if (itemState != null) {
+                    state = itemState;
+                }
+                audioUrl = string(item, "audio_url");
+            }
+        }
+
+        return new GenerationResult()
+                .setTaskId(taskId)
+                .setStatus(state)
+                .setAudioUrl(audioUrl);
+    }
+
+    private static String string(JsonObject object, String key) {
+        JsonElement value = object.get(key);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+}
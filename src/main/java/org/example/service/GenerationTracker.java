@@ -0,0 +1,261 @@
+package org.example.service;
+
+import org.example.model.APIClient;
+import org.example.model.domain.GenerationResult;
+import org.example.model.http.PollingPolicy;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Waits for many generation tasks at once without a thread per task.
+ *
+ * Each tracked task id gets one {@code CompletableFuture<GenerationResult>}
+ * and a small record of its polling state. A single scheduler thread fires
+ * the polls when the {@link PollingPolicy} says they are due, and the polls
+ * themselves are non-blocking, so nothing sleeps while a task is pending:
+ * thousands of pending generations cost one timer thread plus a few objects
+ * each.
+ *
+ * A task finishes when a poll returns a terminal result (audio URL, success
+ * or failure status), fails when a poll fails after its retries, and is
+ * reported with status "timeout" once the policy's deadline passes.
+ * A completion callback can finish a task early through {@link #complete}.
+ * A callback may even beat the create response that tells the caller the
+ * task id; the most recent such results are held and handed to
+ * {@link #track} when the task shows up.
+ *
+ * Every caller of {@link #track} gets its own view of the task's result, so
+ * one caller cancelling never aborts the wait of another; polling stops
+ * once every caller of a task has cancelled.
+ */
+public class GenerationTracker {
+
+    // final results that arrived before their task was tracked; a few in-flight creates' worth
+    private static final int MAX_EARLY_COMPLETIONS = 256;
+
+    private final Function<String, CompletableFuture<GenerationResult>> poller;
+    private final PollingPolicy pollingPolicy;
+    private final Map<String, Task> pending = new ConcurrentHashMap<>();
+    private final Map<String, GenerationResult> early = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, GenerationResult> eldest) {
+                    return size() > MAX_EARLY_COMPLETIONS;
+                }
+            });
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "generation-tracker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param poller fetches a task's current status once; a result that is
+     *               not terminal means "still running"
+     */
+    public GenerationTracker(Function<String, CompletableFuture<GenerationResult>> poller,
+                             PollingPolicy pollingPolicy) {
+        this.poller = Objects.requireNonNull(poller, "poller");
+        this.pollingPolicy = Objects.requireNonNull(pollingPolicy, "pollingPolicy");
+    }
+
+    /**
+     * Future for {@code taskId}'s final result. Tracking a task that is
+     * already tracked joins its polling instead of starting another.
+     */
+    public CompletableFuture<GenerationResult> track(String taskId) {
+        Objects.requireNonNull(taskId, "taskId");
+        while (true) {
+            Task existing = pending.get(taskId);
+            if (existing != null) {
+                if (existing.join()) {
+                    return view(existing);
+                }
+                // abandoned by all its callers; replace it
+                pending.remove(taskId, existing);
+                continue;
+            }
+
+            Task created = new Task(taskId);
+            if (pending.putIfAbsent(taskId, created) != null) {
+                continue;
+            }
+            // however the task ends, stop tracking it
+            created.result.whenComplete((value, error) -> pending.remove(taskId, created));
+            CompletableFuture<GenerationResult> view = view(created);
+            // checked after registering: complete() stashes before it looks, so one of us sees the other
+            GenerationResult arrived = early.remove(taskId);
+            if (arrived != null) {
+                created.result.complete(arrived);
+            } else {
+                scheduleNext(created);
+            }
+            return view;
+        }
+    }
+
+    private CompletableFuture<GenerationResult> view(Task task) {
+        CompletableFuture<GenerationResult> view = task.result.copy();
+        view.whenComplete((value, error) -> {
+            if (view.isCancelled() && task.leave()) {
+                // nobody is waiting any more: stop polling
+                task.result.cancel(true);
+            }
+        });
+        return view;
+    }
+
+    /**
+     * Complete a tracked task from outside the poll loop (a completion
+     * callback). Ignored, returning false, when the result is not final yet;
+     * polling then carries on as usual. A final result for a task that is
+     * not tracked (yet) is held for a later {@link #track} and also returns
+     * false.
+     */
+    public boolean complete(GenerationResult result) {
+        if (result == null || result.getTaskId() == null || !isTerminal(result)) {
+            return false;
+        }
+        String taskId = result.getTaskId();
+        Task task = pending.get(taskId);
+        if (task == null) {
+            early.put(taskId, result);
+            // track() may have registered the task in the meantime, before seeing the stash
+            task = pending.get(taskId);
+            if (task == null || !early.remove(taskId, result)) {
+                return false;
+            }
+            return task.result.complete(result); // too soon after the start to be a useful sample
+        }
+        if (!task.result.complete(result)) {
+            return false;
+        }
+        recordIfSucceeded(task, result);
+        return true;
+    }
+
+    /** Number of tasks still being polled. */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public PollingPolicy getPollingPolicy() {
+        return pollingPolicy;
+    }
+
+    private void scheduleNext(Task task) {
+        long delayMs = pollingPolicy.nextDelayMs(task.elapsedMs(), task.previousDelayMs);
+        if (delayMs == PollingPolicy.STOP) {
+            task.result.complete(markTimeout(task.lastResult));
+            return;
+        }
+        task.previousDelayMs = delayMs;
+        ScheduledFuture<?> next = scheduler.schedule(() -> poll(task), delayMs, TimeUnit.MILLISECONDS);
+        APIClient.cancelWith(task.result, next);
+    }
+
+    private void poll(Task task) {
+        if (task.result.isDone()) {
+            return; // cancelled
+        }
+        CompletableFuture<GenerationResult> poll;
+        try {
+            poll = poller.apply(task.taskId);
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+            return;
+        }
+        APIClient.cancelWith(task.result, poll);
+        poll.whenComplete((current, error) -> {
+            if (error != null) {
+                task.result.completeExceptionally(APIClient.unwrap(error));
+                return;
+            }
+            if (current != null && isTerminal(current)) {
+                if (task.result.complete(current)) {
+                    recordIfSucceeded(task, current);
+                }
+                return;
+            }
+            if (current != null) {
+                task.lastResult = current;
+            }
+            scheduleNext(task);
+        });
+    }
+
+    /** Only finished generations teach the policy: fast failures would pull its window too early. */
+    private void recordIfSucceeded(Task task, GenerationResult result) {
+        if (isSuccess(result)) {
+            pollingPolicy.recordCompletion(task.elapsedMs());
+        }
+    }
+
+    static boolean isSuccess(GenerationResult result) {
+        // If we have an audio URL, we're done no matter what the text says
+        if (result.getAudioUrl() != null && !result.getAudioUrl().isBlank()) {
+            return true;
+        }
+        String lower = result.getStatus() != null ? result.getStatus().toLowerCase() : "";
+        return lower.contains("succeeded") || lower.contains("success");
+    }
+
+    static boolean isTerminal(GenerationResult result) {
+        if (isSuccess(result)) {
+            return true;
+        }
+        String lower = result.getStatus() != null ? result.getStatus().toLowerCase() : "";
+        return lower.contains("failed") || lower.contains("error");
+    }
+
+    private static GenerationResult markTimeout(GenerationResult lastResult) {
+        // Only call it timeout if we never got an audio URL or a terminal status
+        if (lastResult.getAudioUrl() == null || lastResult.getAudioUrl().isBlank()) {
+            lastResult.setStatus("timeout");
+        }
+        return lastResult;
+    }
+
+    /** Polling state of one task; only touched by one poll or timer at a time. */
+    private static final class Task {
+        final String taskId;
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<GenerationResult> result = new CompletableFuture<>();
+        // callers still interested; 0 means abandoned, and it never goes back up
+        final AtomicInteger waiters = new AtomicInteger(1);
+        volatile long previousDelayMs;
+        volatile GenerationResult lastResult;
+
+        Task(String taskId) {
+            this.taskId = taskId;
+            this.lastResult = new GenerationResult()
+                    .setTaskId(taskId)
+                    .setStatus("pending");
+        }
+
+        boolean join() {
+            return waiters.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+        }
+
+        /** True for the caller whose cancellation leaves nobody waiting. */
+        boolean leave() {
+            return waiters.decrementAndGet() == 0;
+        }
+
+        long elapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
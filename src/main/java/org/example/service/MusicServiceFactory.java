@@ -3,21 +3,32 @@ package org.example.service;
 import org.example.model.*;
 import org.example.model.strategy.*;
 
+import java.util.Properties;
+
 public class MusicServiceFactory {
 
     private final SpotifyService spotifyService;
     private final SunoService sunoService;
+    private final Properties config;
 
     public MusicServiceFactory(SpotifyService spotifyService, SunoService sunoService) {
+        this(spotifyService, sunoService, new Properties());
+    }
+
+    /** {@code config} supplies the recommendation.* settings. */
+    public MusicServiceFactory(SpotifyService spotifyService, SunoService sunoService, Properties config) {
         this.spotifyService = spotifyService;
         this.sunoService = sunoService;
+        this.config = config;
     }
 
     // Recommendation modes for the Strategy pattern
     public enum RecommendationMode {
         MOOD,
         GENRE,
-        ARTIST
+        ARTIST,
+        HYBRID,
+        LOCAL
     }
 
     // Generation modes for the Strategy pattern
@@ -27,13 +38,60 @@ public class MusicServiceFactory {
 
     // Existing factory method for recommendation strategies
     public RecommendationStrategy createRecommendationStrategy(RecommendationMode mode) {
+        TrackRanker ranker = createRanker();
         return switch (mode) {
-            case MOOD -> new MoodRecommendationStrategy(spotifyService);
-            case GENRE -> new GenreRecommendationStrategy(spotifyService);
-            case ARTIST -> new ArtistSeedRecommendationStrategy(spotifyService);
+            case MOOD -> new MoodRecommendationStrategy(spotifyService, ranker);
+            case GENRE -> new GenreRecommendationStrategy(spotifyService, ranker);
+            case ARTIST -> new ArtistSeedRecommendationStrategy(spotifyService, ranker);
+            case HYBRID -> new HybridRecommendationStrategy(spotifyService,
+                    (long) number("recommendation.hybrid.deadlineMs", HybridRecommendationStrategy.DEFAULT_DEADLINE_MS),
+                    number("recommendation.hybrid.moodWeight", 1.0),
+                    number("recommendation.hybrid.genreWeight", 1.0),
+                    number("recommendation.hybrid.artistWeight", 1.0),
+                    ranker);
+            case LOCAL -> spotifyService.getTrackIndex() == null
+                    ? new MoodRecommendationStrategy(spotifyService, ranker)
+                    : new LocalIndexRecommendationStrategy(spotifyService.getTrackIndex(),
+                            new MoodRecommendationStrategy(spotifyService, ranker),
+                            (int) number("recommendation.local.minResults", LocalIndexRecommendationStrategy.DEFAULT_MIN_RESULTS),
+                            (int) number("recommendation.local.limit", LocalIndexRecommendationStrategy.DEFAULT_LIMIT),
+                            ranker);
         };
     }
 
+    /** Local re-ranking from recommendation.ranking.*, or null when disabled (Spotify's order is kept). */
+    private TrackRanker createRanker() {
+        if (!Boolean.parseBoolean(config.getProperty("recommendation.ranking.enabled", "false").trim())) {
+            return null;
+        }
+        return new TrackRanker()
+                .setTextWeight(number("recommendation.ranking.textWeight", 1.0))
+                .setPopularityWeight(number("recommendation.ranking.popularityWeight", 0.5))
+                .setRecencyWeight(number("recommendation.ranking.recencyWeight", 0.2))
+                .setRecencyHalfLifeYears(number("recommendation.ranking.recencyHalfLifeYears", 10))
+                .setDiversityPenalty(number("recommendation.ranking.diversityPenalty", 0.3))
+                .setTopK((int) number("recommendation.ranking.topK", 10))
+                .setCandidatePoolSize((int) number("recommendation.ranking.poolSize", 50));
+    }
+
+    /** Batch runner for many queries, capped at recommendation.batch.maxConcurrency. */
+    public BatchRecommendationService createBatchRecommendationService() {
+        return new BatchRecommendationService(this,
+                (int) number("recommendation.batch.maxConcurrency", BatchRecommendationService.DEFAULT_MAX_CONCURRENCY));
+    }
+
+    private double number(String key, double defaultValue) {
+        String raw = config.getProperty(key);
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(raw.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     // NEW: factory method for music generation strategies
     public MusicGenerationStrategy createGenerationStrategy(GenerationMode mode) {
         return switch (mode) {
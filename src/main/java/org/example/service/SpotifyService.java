@@ -1,64 +1,643 @@
 package org.example.service;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import org.example.model.APIClient;
+import org.example.model.CancellationToken;
+import org.example.model.cache.CacheStats;
+import org.example.model.cache.DiskCache;
+import org.example.model.cache.SingleFlight;
+import org.example.model.cache.TinyLfuCache;
+import org.example.model.cache.TrackIndex;
+import org.example.model.cache.TrackListCodec;
 import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
+import org.example.model.http.LimitedInputStream;
+import org.example.model.http.Validators;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SpotifyService {
 
     private static final String SPOTIFY_API_BASE = "https://api.spotify.com/v1";
+    private static final long DEFAULT_MAX_BODY_BYTES = 2L * 1024 * 1024;
+    private static final int ERROR_BODY_PREVIEW_BYTES = 2048;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    // Spotify refuses search offsets beyond this
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int DEFAULT_PARALLEL_PAGES = 4;
+    // /v1/tracks?ids= accepts at most this many ids per call
+    private static final int MAX_IDS_PER_LOOKUP = 50;
+    private static final int DEFAULT_TRACK_CACHE_ENTRIES = 5000;
+    private static final long DEFAULT_TRACK_CACHE_TTL_SECONDS = 24 * 60 * 60;
+    private static final int DEFAULT_CACHE_ENTRIES = 1000;
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 600;
+    private static final long DEFAULT_STALE_RETENTION_SECONDS = 3600;
+    private static final long DEFAULT_MAX_STALE_SECONDS = 3600;
+    private static final long DEFAULT_DISK_CACHE_TTL_SECONDS = 24 * 60 * 60;
 
     private final APIClient apiClient;
+    private final long maxBodyBytes;
+    private final int pageSize;
+    private final int parallelPages;
+
+    // Coalesces identical searches that are in flight at the same time (used when the cache is off)
+    private final SingleFlight<String, CachedSearch> inFlightSearches = new SingleFlight<>();
+
+    // Recent search results keyed by normalized query + page, with their HTTP validators; null when disabled
+    private final TinyLfuCache<String, CachedSearch> searchCache;
+
+    // Tracks by id, filled by getTracks and by search results
+    private final TinyLfuCache<String, Track> trackCache;
+
+    // Serving expired entries: instantly while refreshing (SWR), and when Spotify is failing
+    private final boolean staleWhileRevalidate;
+    private final long maxStaleNanos;
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder staleOnError = new LongAdder();
+
+    // Optional persistent L2 behind searchCache; set by Main so tests never touch disk
+    private volatile DiskCache diskCache;
+    private final long diskCacheTtlMillis;
+
+    // Every track seen (fetched or served from disk) is indexed here for offline search; Main swaps in the persisted one
+    private volatile TrackIndex trackIndex;
 
     public SpotifyService(APIClient apiClient) {
         this.apiClient = apiClient;
+        Properties config = apiClient.getConfig();
+        this.maxBodyBytes = parseLong(config.getProperty("spotify.maxBodyBytes"), DEFAULT_MAX_BODY_BYTES);
+        this.pageSize = (int) Math.max(1, Math.min(MAX_LIMIT,
+                parseLong(config.getProperty("spotify.paging.pageSize"), MAX_LIMIT)));
+        this.parallelPages = (int) Math.max(1,
+                parseLong(config.getProperty("spotify.paging.parallelPages"), DEFAULT_PARALLEL_PAGES));
+
+        if (Boolean.parseBoolean(config.getProperty("spotify.cache.enabled", "true"))) {
+            int maxEntries = (int) parseLong(config.getProperty("spotify.cache.maxEntries"), DEFAULT_CACHE_ENTRIES);
+            long ttlNanos = TimeUnit.SECONDS.toNanos(
+                    parseLong(config.getProperty("spotify.cache.ttlSeconds"), DEFAULT_CACHE_TTL_SECONDS));
+            long staleNanos = TimeUnit.SECONDS.toNanos(parseLong(
+                    config.getProperty("spotify.cache.staleRetentionSeconds"), DEFAULT_STALE_RETENTION_SECONDS));
+            this.maxStaleNanos = TimeUnit.SECONDS.toNanos(
+                    parseLong(config.getProperty("spotify.cache.maxStaleSeconds"), DEFAULT_MAX_STALE_SECONDS));
+            this.searchCache = new TinyLfuCache<>(maxEntries, cached -> cached.freshForNanos(ttlNanos),
+                    Math.max(staleNanos, maxStaleNanos));
+        } else {
+            this.searchCache = null;
+            this.maxStaleNanos = 0;
+        }
+        this.trackCache = new TinyLfuCache<>(
+                (int) parseLong(config.getProperty("spotify.trackCache.maxEntries"), DEFAULT_TRACK_CACHE_ENTRIES),
+                parseLong(config.getProperty("spotify.trackCache.ttlSeconds"), DEFAULT_TRACK_CACHE_TTL_SECONDS),
+                TimeUnit.SECONDS);
+        this.staleWhileRevalidate = Boolean.parseBoolean(
+                config.getProperty("spotify.cache.staleWhileRevalidate", "true"));
+        this.diskCacheTtlMillis = TimeUnit.SECONDS.toMillis(
+                parseLong(config.getProperty("spotify.diskCache.ttlSeconds"), DEFAULT_DISK_CACHE_TTL_SECONDS));
+        this.trackIndex = Boolean.parseBoolean(config.getProperty("spotify.index.enabled", "true"))
+                ? new TrackIndex() : null;
+    }
+
+    /** Attach (or detach, with null) the on-disk cache consulted on in-memory misses. */
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Replace (or drop, with null) the local index that parsed tracks are
+     * added to. Tracks already in the index being replaced are carried over,
+     * so nothing seen before the persisted index finished loading is lost.
+     */
+    public void setTrackIndex(TrackIndex trackIndex) {
+        TrackIndex interim = this.trackIndex;
+        this.trackIndex = trackIndex;
+        // copied after the swap, so tracks still being added to the interim index are included
+        if (interim != null && trackIndex != null && interim != trackIndex) {
+            trackIndex.addAll(interim.tracks());
+        }
+    }
+
+    /** The local track index, or null when spotify.index.enabled is false. */
+    public TrackIndex getTrackIndex() {
+        return trackIndex;
+    }
+
+    private static long parseLong(String raw, long defaultValue) {
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     /**
      * First real API call: use Spotify Search API to find tracks for the query text.
+     * Concurrent identical searches share one HTTP round trip (see {@link #searchTracksAsync}).
      */
     public List<Track> searchTracks(UserQuery query) throws IOException {
-        if (query == null || query.getText() == null || query.getText().isBlank()) {
-            return Collections.emptyList();
-        }
+        return searchTracks(query, 0, DEFAULT_LIMIT);
+    }
 
+    /**
+     * Look tracks up by id. Ids already in the track cache are answered
+     * locally; the rest are fetched from /v1/tracks in chunks of 50, all
+     * chunks in parallel, so N unknown ids cost ceil(N/50) requests.
+     * The map follows the order of {@code ids}; unknown ids are left out.
+     */
+    public Map<String, Track> getTracks(Collection<String> ids) throws IOException {
         try {
-            String accessToken = apiClient.getOrRefreshSpotifyToken();
-            String encoded = APIClient.urlEncode(query.getText());
-            String url = SPOTIFY_API_BASE +
-                    "/search?offset=0&limit=10&query=" + encoded + "&type=track";
+            return APIClient.await(getTracksAsync(ids));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling Spotify", e);
+        }
+    }
+
+    public CompletableFuture<Map<String, Track>> getTracksAsync(Collection<String> ids) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank()) {
+                wanted.add(id.trim());
+            }
+        }
 
-            HttpResponse<String> response =
-                    apiClient.getWithRetry(url, "Bearer " + accessToken);
+        Map<String, Track> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : wanted) {
+            Track cached = trackCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
 
-            int status = response.statusCode();
-            String body = response.body();
+        List<CompletableFuture<List<Track>>> chunks = new ArrayList<>();
+        for (int i = 0; i < missing.size(); i += MAX_IDS_PER_LOOKUP) {
+            chunks.add(fetchTracks(missing.subList(i, Math.min(missing.size(), i + MAX_IDS_PER_LOOKUP))));
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0]));
+        for (CompletableFuture<List<Track>> chunk : chunks) {
+            APIClient.cancelWith(all, chunk);
+        }
+        return APIClient.thenApplyCancellable(all, done -> {
+            for (CompletableFuture<List<Track>> chunk : chunks) {
+                for (Track t : chunk.join()) {
+                    found.put(t.getId(), t);
+                }
+            }
+            Map<String, Track> result = new LinkedHashMap<>();
+            for (String id : wanted) {
+                Track t = found.get(id);
+                if (t != null) {
+                    result.put(id, t);
+                }
+            }
+            return result;
+        });
+    }
+
+    private CompletableFuture<List<Track>> fetchTracks(List<String> ids) {
+        StringBuilder url = new StringBuilder(SPOTIFY_API_BASE).append("/tracks?ids=");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                url.append(',');
+            }
+            url.append(APIClient.urlEncode(ids.get(i)));
+        }
+        String lookupUrl = url.toString();
+        return APIClient.thenComposeCancellable(
+                sendAuthorizedAsync(authHeader -> apiClient.getStreamHedgedAsync(lookupUrl, authHeader)),
+                response -> {
+                    try {
+                        List<Track> tracks = tracksFromLookupResponse(response);
+                        cacheTracks(tracks);
+                        return CompletableFuture.completedFuture(tracks);
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
 
+    private List<Track> tracksFromLookupResponse(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = new LimitedInputStream(response.body(), maxBodyBytes)) {
+            int status = response.statusCode();
             if (status != 200) {
-                throw new IOException("Spotify search failed: HTTP " + status + " – " + body);
+                throw new IOException("Spotify track lookup failed: HTTP " + status + " – " + readErrorBody(body));
             }
+            return parseTracksFromLookup(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+    }
 
-            // Debug: see what JSON we get (you can comment this out later)
-            System.out.println("DEBUG raw JSON (first 400 chars):");
-            System.out.println(body.substring(0, Math.min(400, body.length())));
+    private void cacheTracks(List<Track> tracks) {
+        for (Track t : tracks) {
+            if (t.getId() != null) {
+                trackCache.put(t.getId(), t);
+            }
+        }
+        TrackIndex index = trackIndex;
+        if (index != null) {
+            index.addAll(tracks);
+        }
+    }
 
-            return parseTracksFromSearch(body);
+    /**
+     * Up to {@code maxTracks} results (Spotify stops at 1000), fetched page by
+     * page with the first spotify.paging.parallelPages pages in parallel and
+     * the next page always prefetched. Ordered and de-duplicated by id.
+     * Close the stream if you stop early, to cancel pages still in flight.
+     * Failures surface as {@link UncheckedIOException}.
+     */
+    public Stream<Track> streamTracks(UserQuery query, int maxTracks) {
+        TrackPageIterator pages = pageIterator(query, maxTracks);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
+    /** Iterator form of {@link #streamTracks(UserQuery, int)}. */
+    public Iterator<Track> iterateTracks(UserQuery query, int maxTracks) {
+        return pageIterator(query, maxTracks);
+    }
+
+    /** Collects {@link #streamTracks(UserQuery, int)}, e.g. for playlist building. */
+    public List<Track> searchAllTracks(UserQuery query, int maxTracks) throws IOException {
+        try (Stream<Track> tracks = streamTracks(query, maxTracks)) {
+            return tracks.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private TrackPageIterator pageIterator(UserQuery query, int maxTracks) {
+        return new TrackPageIterator((offset, limit) -> searchTracksAsync(query, offset, limit),
+                pageSize, Math.min(maxTracks, MAX_SEARCH_RESULTS), parallelPages);
+    }
+
+    /**
+     * Stale-while-revalidate search: if the cached result has expired (but is
+     * younger than spotify.cache.maxStaleSeconds) it is returned at once and
+     * refreshed in the background; when the refreshed list differs it is
+     * passed to {@code onRefresh} (on an HTTP client thread).
+     */
+    public List<Track> searchTracks(UserQuery query, Consumer<List<Track>> onRefresh) throws IOException {
+        try {
+            return APIClient.await(searchTracksAsync(query, onRefresh));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling Spotify", e);
+        }
+    }
+
+    /**
+     * {@link #searchTracks(UserQuery, Consumer)} that stops when
+     * {@code cancellation} is cancelled: the HTTP exchange is aborted unless
+     * another caller is still waiting for the same search.
+     */
+    public List<Track> searchTracks(UserQuery query, Consumer<List<Track>> onRefresh,
+                                    CancellationToken cancellation) throws IOException {
+        try {
+            return APIClient.await(searchTracksAsync(query, onRefresh), cancellation);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Interrupted while calling Spotify", e);
         }
     }
 
+    /**
+     * The first {@code maxTracks} results as one list, for callers that rank
+     * a bigger pool than they show. Pages are fetched one after another
+     * through the search cache (so stale-while-revalidate applies per page),
+     * and the next page only when the previous one came back full: a query
+     * with few matches costs one request. When a stale page is refreshed,
+     * {@code onRefresh} gets the whole pool again with that page replaced.
+     * Cancellation aborts the page still loading.
+     */
+    public List<Track> searchTrackPool(UserQuery query, int maxTracks, Consumer<List<Track>> onRefresh,
+                                       CancellationToken cancellation) throws IOException {
+        int total = Math.max(1, Math.min(maxTracks, MAX_SEARCH_RESULTS));
+        AtomicReferenceArray<List<Track>> latest = new AtomicReferenceArray<>((total + pageSize - 1) / pageSize);
+        // pages making up the returned pool; 0 until it is returned, so earlier refreshes only update latest
+        AtomicInteger published = new AtomicInteger();
+
+        int pageCount = 0;
+        CompletableFuture<List<Track>> loading = null;
+        try {
+            while (pageCount < latest.length()) {
+                int index = pageCount;
+                Consumer<List<Track>> pageRefresh = onRefresh == null ? null : refreshed -> {
+                    latest.set(index, refreshed);
+                    int pages = published.get();
+                    List<Track> pool = pages == 0 ? null : mergePages(latest, pages, total);
+                    if (pool != null) {
+                        onRefresh.accept(pool);
+                    }
+                };
+                int offset = pageCount * pageSize;
+                int limit = Math.min(pageSize, total - offset);
+                loading = cancellation.bind(searchPage(query, offset, limit, pageRefresh));
+                List<Track> page = APIClient.await(loading, cancellation);
+                // a refresh that beat the first answer is already newer
+                latest.compareAndSet(index, null, page);
+                pageCount++;
+                if (page.size() < limit) {
+                    break; // Spotify has nothing beyond this page
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling Spotify", e);
+        } finally {
+            if (loading != null) {
+                loading.cancel(true); // no-op once it finished
+            }
+        }
+        published.set(pageCount);
+        return mergePages(latest, pageCount, total);
+    }
+
+    /** The first {@code pageCount} pages concatenated in order and de-duplicated by id, or null while one is missing. */
+    private static List<Track> mergePages(AtomicReferenceArray<List<Track>> pages, int pageCount, int maxTracks) {
+        Map<String, Track> merged = new LinkedHashMap<>();
+        List<Track> withoutId = new ArrayList<>();
+        for (int i = 0; i < pageCount; i++) {
+            List<Track> page = pages.get(i);
+            if (page == null) {
+                return null;
+            }
+            for (Track track : page) {
+                if (track.getId() == null) {
+                    withoutId.add(track);
+                } else {
+                    merged.putIfAbsent(track.getId(), track);
+                }
+            }
+        }
+        List<Track> pool = new ArrayList<>(merged.values());
+        pool.addAll(withoutId);
+        return pool.size() > maxTracks ? new ArrayList<>(pool.subList(0, maxTracks)) : pool;
+    }
+
+    /** One page of search results; limit is capped at Spotify's maximum of 50. */
+    public List<Track> searchTracks(UserQuery query, int offset, int limit) throws IOException {
+        try {
+            return APIClient.await(searchTracksAsync(query, offset, limit));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling Spotify", e);
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #searchTracks(UserQuery)}: no thread is
+     * held while the request (or a retry backoff) is pending.
+     *
+     * Results are cached in memory for spotify.cache.ttlSeconds, keyed on the
+     * normalized query text plus offset and limit, so "Chill" and " chill "
+     * share an entry. In-memory misses fall back to the disk cache (if one is
+     * attached) before going to Spotify. Misses that overlap in time are
+     * coalesced: they share one in-flight request and the same (unmodifiable)
+     * parsed list. If Spotify fails, a stale entry up to
+     * spotify.cache.maxStaleSeconds old is served instead of the error.
+     */
+    public CompletableFuture<List<Track>> searchTracksAsync(UserQuery query) {
+        return searchTracksAsync(query, 0, DEFAULT_LIMIT);
+    }
+
+    public CompletableFuture<List<Track>> searchTracksAsync(UserQuery query, Consumer<List<Track>> onRefresh) {
+        return searchPage(query, 0, DEFAULT_LIMIT, onRefresh);
+    }
+
+    public CompletableFuture<List<Track>> searchTracksAsync(UserQuery query, int offset, int limit) {
+        return searchPage(query, offset, limit, null);
+    }
+
+    private CompletableFuture<List<Track>> searchPage(UserQuery query, int offset, int limit,
+                                                      Consumer<List<Track>> onRefresh) {
+        if (query == null || query.getText() == null || query.getText().isBlank()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        String text = normalizeQueryText(query.getText());
+        int pageOffset = Math.max(0, offset);
+        int pageLimit = Math.max(1, Math.min(MAX_LIMIT, limit));
+        String url = buildSearchUrl(text, pageOffset, pageLimit);
+
+        String key = text + "|" + pageOffset + "|" + pageLimit;
+        if (searchCache == null) {
+            return APIClient.thenApplyCancellable(
+                    inFlightSearches.execute(key, () -> loadSearch(key, url, null)), CachedSearch::getTracks);
+        }
+
+        TinyLfuCache.Entry<CachedSearch> entry = searchCache.getEntry(key);
+        if (entry != null && entry.isFresh()) {
+            return CompletableFuture.completedFuture(entry.getValue().getTracks());
+        }
+        CompletableFuture<CachedSearch> load = searchCache.refresh(key, (k, old) -> loadSearch(key, url, old));
+
+        CachedSearch stale = entry != null && entry.getStaleNanos() <= maxStaleNanos ? entry.getValue() : null;
+        if (stale == null) {
+            return APIClient.thenApplyCancellable(load, CachedSearch::getTracks);
+        }
+        if (onRefresh != null && staleWhileRevalidate) {
+            staleServed.increment();
+            load.thenAccept(fresh -> {
+                if (!fresh.getTracks().equals(stale.getTracks())) {
+                    onRefresh.accept(fresh.getTracks());
+                }
+            });
+            // a failed refresh just leaves the stale list on screen
+            return CompletableFuture.completedFuture(stale.getTracks());
+        }
+        return APIClient.cancelWith(load.handle((fresh, error) -> {
+            if (error == null) {
+                return fresh.getTracks();
+            }
+            Throwable cause = APIClient.unwrap(error);
+            if (cause instanceof CancellationException) {
+                throw new CompletionException(cause);
+            }
+            staleOnError.increment();
+            return stale.getTracks();
+        }), load);
+    }
+
+    /**
+     * In-memory miss. An expired entry that still has validators is
+     * revalidated with a conditional GET; otherwise the disk cache is tried,
+     * then a full Spotify fetch (written back to disk).
+     */
+    private CompletableFuture<CachedSearch> loadSearch(String key, String url, CachedSearch stale) {
+        if (stale != null && stale.getValidators().canRevalidate()) {
+            return fetchSearch(url, stale);
+        }
+        DiskCache disk = diskCache;
+        if (disk == null) {
+            return fetchSearch(url, null);
+        }
+        ByteBuffer stored = disk.get(key);
+        // the validators go with the tracks, so this entry can be revalidated once it expires
+        Validators validators = stored != null ? TrackListCodec.decodeValidators(stored) : null;
+        List<Track> tracks = validators != null ? TrackListCodec.decode(stored) : null;
+        if (tracks != null) {
+            // served from disk, not parsed: index and cache the tracks like a fresh response
+            cacheTracks(tracks);
+            return CompletableFuture.completedFuture(new CachedSearch(Collections.unmodifiableList(tracks), validators));
+        }
+        return APIClient.thenApplyCancellable(fetchSearch(url, null), fetched -> {
+            if (fetched.getValidators().isNoStore()) {
+                return fetched;
+            }
+            try {
+                disk.put(key, TrackListCodec.encode(fetched.getTracks(), fetched.getValidators()), diskCacheTtlMillis);
+            } catch (IOException e) {
+                // the disk tier is best effort; the result is still served
+                System.err.println("Could not write search result to disk cache: " + e.getMessage());
+            }
+            return fetched;
+        });
+    }
+
+    /** Hit/miss/eviction/load-time counters of the search cache (all zero when disabled). */
+    public CacheStats getSearchCacheStats() {
+        return searchCache != null ? searchCache.stats() : new CacheStats(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /** Expired results returned immediately while a background refresh ran. */
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
+
+    /** Expired results returned because Spotify failed or was rate-limited. */
+    public long getStaleOnErrorCount() {
+        return staleOnError.sum();
+    }
+
+    /** Lower-cases and collapses whitespace so trivially different queries share a cache entry. */
+    static String normalizeQueryText(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * GET a search page. With a {@code stale} entry the request is conditional,
+     * and a 304 renews that entry as-is - the body is neither downloaded nor parsed.
+     */
+    private CompletableFuture<CachedSearch> fetchSearch(String url, CachedSearch stale) {
+        Validators conditional = stale != null ? stale.getValidators() : null;
+        return APIClient.thenComposeCancellable(
+                sendAuthorizedAsync(authHeader -> apiClient.getStreamHedgedAsync(url, authHeader, conditional)),
+                response -> {
+                    if (stale != null && response.statusCode() == 304) {
+                        closeQuietly(response.body());
+                        return CompletableFuture.completedFuture(
+                                new CachedSearch(stale.getTracks(), stale.getValidators().updatedBy(response)));
+                    }
+                    try {
+                        return CompletableFuture.completedFuture(searchFromResponse(response));
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+
+    private String buildSearchUrl(String text, int offset, int limit) {
+        String encoded = APIClient.urlEncode(text);
+        return SPOTIFY_API_BASE +
+                "/search?offset=" + offset + "&limit=" + limit + "&query=" + encoded + "&type=track";
+    }
+
+    /**
+     * Parse a search response straight off the wire. The body is never
+     * buffered into a String; oversized bodies are cut off at maxBodyBytes.
+     */
+    private CachedSearch searchFromResponse(HttpResponse<InputStream> response) throws IOException {
+        try (LimitedInputStream body = new LimitedInputStream(response.body(), maxBodyBytes)) {
+            int status = response.statusCode();
+            if (status != 200) {
+                throw new IOException("Spotify search failed: HTTP " + status + " – " + readErrorBody(body));
+            }
+            List<Track> tracks = parseTracksFromSearch(new InputStreamReader(body, StandardCharsets.UTF_8));
+            cacheTracks(tracks);
+            return new CachedSearch(Collections.unmodifiableList(tracks),
+                    Validators.from(response).withBodyBytes(body.getCount()));
+        }
+    }
+
+    private String readErrorBody(InputStream body) throws IOException {
+        byte[] head = body.readNBytes(ERROR_BODY_PREVIEW_BYTES);
+        return new String(head, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends a Spotify call with the cached bearer token. If Spotify answers 401
+     * (token revoked or expired early) the token is invalidated and the call is
+     * retried exactly once with a fresh one. Cancelling the result cancels
+     * whichever request is in flight.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAuthorizedAsync(
+            Function<String, CompletableFuture<HttpResponse<T>>> call) {
+        return APIClient.thenComposeCancellable(apiClient.getSpotifyTokenAsync(), token ->
+                APIClient.thenComposeCancellable(call.apply("Bearer " + token), response -> {
+                    if (response.statusCode() != 401) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    closeQuietly(response.body());
+                    apiClient.invalidateSpotifyToken(token);
+                    return APIClient.thenComposeCancellable(apiClient.getSpotifyTokenAsync(),
+                            fresh -> call.apply("Bearer " + fresh));
+                }));
+    }
+
+    private static void closeQuietly(Object body) {
+        if (body instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // discarding a rejected response; nothing to do
+            }
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Simple "recommendation" wrappers for your strategies
     // -------------------------------------------------------------------------
@@ -89,65 +668,258 @@ public class SpotifyService {
     // -------------------------------------------------------------------------
 
     public List<Track> parseTracksFromSearch(String json) {
+        try {
+            return parseTracksFromSearch(new StringReader(json));
+        } catch (IOException e) {
+            throw new JsonParseException("Malformed Spotify search JSON", e);
+        }
+    }
+
+    /**
+     * Parser for /v1/tracks?ids= responses: {"tracks": [track, ...]}, where
+     * ids Spotify does not know come back as null entries.
+     */
+    public List<Track> parseTracksFromLookup(Reader in) throws IOException {
         List<Track> tracks = new ArrayList<>();
 
-        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-        if (!root.has("tracks") || root.get("tracks").isJsonNull()) {
-            System.out.println("DEBUG: no 'tracks' object in JSON");
+        JsonReader reader = new JsonReader(in);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
             return tracks;
         }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"tracks".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Track t = readTrack(reader);
+                if (t != null && t.getId() != null) {
+                    tracks.add(t);
+                }
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+
+        return tracks;
+    }
+
+    /**
+     * Streaming parser for the search response. Pulls only the fields Track
+     * needs (id, name, preview_url, popularity, duration_ms, explicit,
+     * album.name, album.release_date, first artist name) and skips
+     * everything else without building a JSON tree.
+     */
+    public List<Track> parseTracksFromSearch(Reader in) throws IOException {
+        List<Track> tracks = new ArrayList<>();
 
-        JsonObject tracksObj = root.getAsJsonObject("tracks");
-        if (!tracksObj.has("items") || tracksObj.get("items").isJsonNull()) {
-            System.out.println("DEBUG: no 'items' array in tracks");
+        JsonReader reader = new JsonReader(in);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
             return tracks;
         }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"tracks".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"items".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Track t = readTrack(reader);
+                    if (t != null) {
+                        tracks.add(t);
+                    }
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+
+        return tracks;
+    }
 
-        JsonArray items = tracksObj.getAsJsonArray("items");
-        for (JsonElement elem : items) {
-            if (!elem.isJsonObject()) continue;
-            JsonObject item = elem.getAsJsonObject();
+    private Track readTrack(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
 
-            String id = optString(item, "id");
-            String name = optString(item, "name");
-            String previewUrl = optString(item, "preview_url");
+        String id = null;
+        String name = null;
+        String previewUrl = null;
+        Album album = new Album("", 0);
+        String artistName = "";
+        int popularity = 0;
+        int durationMs = 0;
+        boolean explicit = false;
 
-            // Album name
-            String albumName = "";
-            if (item.has("album") && item.get("album").isJsonObject()) {
-                JsonObject album = item.getAsJsonObject("album");
-                albumName = optString(album, "name");
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = nextStringOrNull(reader);
+                case "name" -> name = nextStringOrNull(reader);
+                case "preview_url" -> previewUrl = nextStringOrNull(reader);
+                case "album" -> album = readAlbum(reader, album);
+                case "artists" -> artistName = readFirstArtistName(reader);
+                case "popularity" -> popularity = nextIntOrZero(reader);
+                case "duration_ms" -> durationMs = nextIntOrZero(reader);
+                case "explicit" -> explicit = nextBooleanOrFalse(reader);
+                default -> reader.skipValue();
             }
+        }
+        reader.endObject();
 
-            // Artist name (first artist in array)
-            String artistName = "";
-            if (item.has("artists") && item.get("artists").isJsonArray()) {
-                JsonArray artists = item.getAsJsonArray("artists");
-                if (!artists.isJsonNull() && artists.size() > 0 && artists.get(0).isJsonObject()) {
-                    JsonObject artistObj = artists.get(0).getAsJsonObject();
-                    artistName = optString(artistObj, "name");
-                }
+        if (name == null || artistName == null) {
+            return null;
+        }
+        return new Track()
+                .setId(id)
+                .setName(name)
+                .setArtist(artistName)
+                .setAlbum(album.name() != null ? album.name() : "")
+                .setPreviewUrl(previewUrl)
+                .setPopularity(popularity)
+                .setDurationMs(durationMs)
+                .setExplicit(explicit)
+                .setReleaseYear(album.releaseYear());
+    }
+
+    private record Album(String name, int releaseYear) {
+    }
+
+    /** Reads album.name and the year of album.release_date ("1999", "1999-06" or "1999-06-01"). */
+    private Album readAlbum(JsonReader reader, Album fallback) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return fallback;
+        }
+        String name = fallback.name();
+        int year = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name" -> name = nextStringOrNull(reader);
+                case "release_date" -> year = parseYear(nextStringOrNull(reader));
+                default -> reader.skipValue();
             }
+        }
+        reader.endObject();
+        return new Album(name, year);
+    }
 
-            if (name != null && artistName != null) {
-                Track t = new Track()
-                        .setId(id)
-                        .setName(name)
-                        .setArtist(artistName)
-                        .setAlbum(albumName != null ? albumName : "")
-                        .setPreviewUrl(previewUrl);
-                tracks.add(t);
+    private static int parseYear(String releaseDate) {
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private int nextIntOrZero(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.NUMBER) {
+            reader.skipValue();
+            return 0;
+        }
+        return (int) reader.nextDouble();
+    }
+
+    private boolean nextBooleanOrFalse(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BOOLEAN) {
+            reader.skipValue();
+            return false;
+        }
+        return reader.nextBoolean();
+    }
+
+    /** Reads {"name": ...} from an object value, skipping its other fields. */
+    private String readNameField(JsonReader reader, String fallback) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return fallback;
+        }
+        String name = fallback;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("name".equals(reader.nextName())) {
+                name = nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
+        return name;
+    }
 
-        System.out.println("DEBUG: parsed " + tracks.size() + " track(s) from JSON.");
-        return tracks;
+    private String readFirstArtistName(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return "";
+        }
+        String artistName = "";
+        boolean first = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (first) {
+                artistName = readNameField(reader, "");
+                first = false;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return artistName;
     }
 
-    private String optString(JsonObject obj, String key) {
-        if (obj == null || !obj.has(key) || obj.get(key).isJsonNull()) {
+    private String nextStringOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
             return null;
         }
-        return obj.get(key).getAsString();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN) {
+            return token == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    /** A parsed search page plus the validators needed to revalidate it. */
+    private static final class CachedSearch {
+        private final List<Track> tracks;
+        private final Validators validators;
+
+        CachedSearch(List<Track> tracks, Validators validators) {
+            this.tracks = tracks;
+            this.validators = validators;
+        }
+
+        List<Track> getTracks() {
+            return tracks;
+        }
+
+        Validators getValidators() {
+            return validators;
+        }
+
+        /** Cache-Control wins over the configured TTL: no-store is not cached, max-age sets the lifetime. */
+        long freshForNanos(long defaultTtlNanos) {
+            if (validators.isNoStore()) {
+                return -1;
+            }
+            long maxAge = validators.getMaxAgeSeconds();
+            return maxAge > 0 ? TimeUnit.SECONDS.toNanos(maxAge) : defaultTtlNanos;
+        }
     }
 }
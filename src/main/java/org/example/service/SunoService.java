@@ -4,28 +4,106 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import org.example.model.APIClient;
+import org.example.model.CancellationToken;
 import org.example.model.domain.GenerationResult;
 import org.example.model.domain.UserQuery;
+import org.example.model.http.PollingPolicy;
 
 import java.io.IOException;
 import java.net.http.HttpResponse;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 public class SunoService {
 
-    private static final int POLL_INTERVAL_MS = 2000;   // 2s
-    private static final int MAX_POLL_ATTEMPTS = 20;    // ~40s total
+    private static final long DEFAULT_POLL_INITIAL_MS = 1000;
+    private static final long DEFAULT_POLL_MAX_INTERVAL_MS = 8000;
+    private static final double DEFAULT_POLL_MULTIPLIER = 1.5;
+    private static final long DEFAULT_POLL_DEADLINE_MS = 120_000;
+    private static final int DEFAULT_POLL_MIN_SAMPLES = 5;
+    // with callbacks on, polling only catches callbacks that never arrive
+    private static final long DEFAULT_CALLBACK_SAFETY_POLL_MS = 15_000;
 
     private final APIClient apiClient;
     private final String baseUrl;   // e.g. https://api.musicapi.ai
     private final String apiKey;    // your Bearer token
 
+    // Polls every pending task from one timer thread; its policy learns from past generations
+    private final GenerationTracker tracker;
+    // Receives completion callbacks, or null to rely on polling alone
+    private final GenerationCallbackServer callbacks;
+
     public SunoService(APIClient apiClient) {
+        this(apiClient, null);
+    }
+
+    /**
+     * With {@code callbacks}, each created task asks MusicAPI to POST its
+     * completion there, and status polls drop to a slow safety net
+     * (suno.callback.safetyPollMs) for callbacks that never arrive.
+     */
+    public SunoService(APIClient apiClient, GenerationCallbackServer callbacks) {
         this.apiClient = apiClient;
         this.baseUrl = Objects.requireNonNull(apiClient.getSunoBaseUrl(),
                 "suno.baseUrl not set in config.properties");
         this.apiKey = Objects.requireNonNull(apiClient.getSunoApiKey(),
                 "suno.apiKey not set in config.properties");
+        this.callbacks = callbacks;
+        this.tracker = new GenerationTracker(this::pollOnceAsync, callbacks == null
+                ? createPollingPolicy(apiClient.getConfig())
+                : createSafetyNetPolicy(apiClient.getConfig()));
+        if (callbacks != null) {
+            callbacks.onCallback(tracker::complete);
+        }
+    }
+
+    private static PollingPolicy createSafetyNetPolicy(Properties config) {
+        long intervalMs = parseLong(config.getProperty("suno.callback.safetyPollMs"), DEFAULT_CALLBACK_SAFETY_POLL_MS);
+        // fixed interval; never learns a dense schedule, since callbacks do the fast path
+        return new PollingPolicy(intervalMs, intervalMs, 1.0,
+                parseLong(config.getProperty("suno.poll.deadlineMs"), DEFAULT_POLL_DEADLINE_MS),
+                Integer.MAX_VALUE);
+    }
+
+    private static PollingPolicy createPollingPolicy(Properties config) {
+        double multiplier = DEFAULT_POLL_MULTIPLIER;
+        String rawMultiplier = config.getProperty("suno.poll.multiplier");
+        if (rawMultiplier != null) {
+            try {
+                multiplier = Double.parseDouble(rawMultiplier.trim());
+            } catch (NumberFormatException e) {
+                // keep the default
+            }
+        }
+        return new PollingPolicy(
+                parseLong(config.getProperty("suno.poll.initialMs"), DEFAULT_POLL_INITIAL_MS),
+                parseLong(config.getProperty("suno.poll.maxIntervalMs"), DEFAULT_POLL_MAX_INTERVAL_MS),
+                multiplier,
+                parseLong(config.getProperty("suno.poll.deadlineMs"), DEFAULT_POLL_DEADLINE_MS),
+                parseInt(config.getProperty("suno.poll.minSamples"), DEFAULT_POLL_MIN_SAMPLES));
+    }
+
+    private static long parseLong(String raw, long defaultValue) {
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int parseInt(String raw, int defaultValue) {
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(raw.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     /**
@@ -34,34 +112,13 @@ public class SunoService {
      * containing the task_id (used for polling).
      */
     public GenerationResult requestInstrumental(UserQuery query) throws IOException {
-        String url = baseUrl + "/api/v1/sonic/create";
-
-        String prompt = buildPrompt(query); // lyrics / description
-        String title = (query.getText() != null && !query.getText().isBlank())
-                ? query.getText()
-                : "MuseMix Instrumental";
-        String tags = buildTags(query);
-
-        JsonObject body = new JsonObject();
-        body.addProperty("custom_mode", true);
-        body.addProperty("prompt", prompt);
-        body.addProperty("title", title);
-        body.addProperty("tags", tags);
-        body.addProperty("make_instrumental", true);      // instrumental only
-        body.addProperty("mv", "sonic-v5");               // model version
-        // you can also add style_weight / weirdness_constraint later
-
-        String jsonBody = body.toString();
+        return requestInstrumental(query, CancellationToken.NONE);
+    }
 
+    /** {@link #requestInstrumental(UserQuery)} that aborts the request when cancellation fires. */
+    public GenerationResult requestInstrumental(UserQuery query, CancellationToken cancellation) throws IOException {
         try {
-            HttpResponse<String> response = apiClient.postJson(url, jsonBody, apiKey);
-            if (response.statusCode() != 200) {
-                throw new IOException("MusicAPI create failed: HTTP "
-                        + response.statusCode() + " - " + response.body());
-            }
-
-            return parseGenerationResultCreate(response.body());
-
+            return APIClient.await(requestInstrumentalAsync(query), cancellation);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Interrupted while calling MusicAPI", e);
@@ -69,62 +126,114 @@ public class SunoService {
     }
 
     /**
-     * Poll the status of a task until it finishes or we time out.
-     * Uses GET /api/v1/sonic/task/{task_id}.
+     * Non-blocking version of {@link #requestInstrumental(UserQuery)}.
+     */
+    public CompletableFuture<GenerationResult> requestInstrumentalAsync(UserQuery query) {
+        String url = baseUrl + "/api/v1/sonic/create";
+
+        return APIClient.thenComposeCancellable(apiClient.postJsonAsync(url, buildCreateBody(query), apiKey),
+                response -> {
+                    try {
+                        return CompletableFuture.completedFuture(toCreateResult(response));
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+
+    /**
+     * Poll the status of a task until it finishes or the polling deadline
+     * (suno.poll.deadlineMs) passes. Uses GET /api/v1/sonic/task/{task_id}.
      */
     public GenerationResult pollGenerationStatus(String taskId) throws IOException {
-        String url = baseUrl + "/api/v1/sonic/task/" + taskId;
+        return pollGenerationStatus(taskId, CancellationToken.NONE);
+    }
 
-        GenerationResult lastResult = new GenerationResult()
-                .setTaskId(taskId)
-                .setStatus("pending");
+    /**
+     * {@link #pollGenerationStatus(String)} that stops as soon as cancellation
+     * fires: the poll in flight is aborted and no further poll is scheduled.
+     */
+    public GenerationResult pollGenerationStatus(String taskId, CancellationToken cancellation) throws IOException {
+        try {
+            return APIClient.await(pollGenerationStatusAsync(taskId), cancellation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while polling MusicAPI", e);
+        }
+    }
 
-        for (int attempt = 0; attempt < MAX_POLL_ATTEMPTS; attempt++) {
-            try {
-                HttpResponse<String> response = apiClient.get(url, apiKey);
-                int statusCode = response.statusCode();
+    /**
+     * Non-blocking version of {@link #pollGenerationStatus(String)}: the task
+     * is handed to the shared {@link GenerationTracker}, which polls it on a
+     * timer instead of sleeping on the caller's thread. The gaps come from
+     * the {@link PollingPolicy}; each poll goes through the retry policy, so
+     * a transient error or 5xx does not end the wait. Cancelling the
+     * returned future aborts the current poll and its timer.
+     */
+    public CompletableFuture<GenerationResult> pollGenerationStatusAsync(String taskId) {
+        return tracker.track(taskId);
+    }
 
-                if (statusCode == 202) {
-                    // task not ready yet, just wait and poll again
-                    Thread.sleep(POLL_INTERVAL_MS);
-                    continue;
-                }
+    public GenerationTracker getGenerationTracker() {
+        return tracker;
+    }
 
-                if (statusCode != 200) {
-                    throw new IOException("MusicAPI poll failed: HTTP "
-                            + statusCode + " – " + response.body());
-                }
+    /** One status check; "pending" while the task is still queued (HTTP 202). */
+    private CompletableFuture<GenerationResult> pollOnceAsync(String taskId) {
+        String url = baseUrl + "/api/v1/sonic/task/" + taskId;
+        return APIClient.thenComposeCancellable(apiClient.getWithRetryAsync(url, apiKey), response -> {
+            if (response.statusCode() == 202) {
+                return CompletableFuture.completedFuture(new GenerationResult()
+                        .setTaskId(taskId)
+                        .setStatus("pending"));
+            }
+            try {
+                return CompletableFuture.completedFuture(toPollResult(taskId, response));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
 
-                lastResult = parseGenerationResultPoll(taskId, response.body());
-                String status = lastResult.getStatus() != null ? lastResult.getStatus() : "";
-                String lower = status.toLowerCase();
+    // ---------- Response handling shared by sync + async paths ----------
 
-                // If we have an audio URL, we're done no matter what the text says
-                if (lastResult.getAudioUrl() != null && !lastResult.getAudioUrl().isBlank()) {
-                    return lastResult;
-                }
+    private String buildCreateBody(UserQuery query) {
+        String prompt = buildPrompt(query); // lyrics / description
+        String title = (query.getText() != null && !query.getText().isBlank())
+                ? query.getText()
+                : "MuseMix Instrumental";
+        String tags = buildTags(query);
 
-                if (lower.contains("succeeded") || lower.contains("success")) {
-                    return lastResult;
-                }
-                if (lower.contains("failed") || lower.contains("error")) {
-                    return lastResult;
-                }
+        JsonObject body = new JsonObject();
+        body.addProperty("custom_mode", true);
+        body.addProperty("prompt", prompt);
+        body.addProperty("title", title);
+        body.addProperty("tags", tags);
+        body.addProperty("make_instrumental", true);      // instrumental only
+        body.addProperty("mv", "sonic-v5");               // model version
+        if (callbacks != null) {
+            body.addProperty("callback_url", callbacks.getCallbackUrl());
+        }
+        // you can also add style_weight / weirdness_constraint later
 
-                // still processing
-                Thread.sleep(POLL_INTERVAL_MS);
+        return body.toString();
+    }
 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IOException("Interrupted while polling MusicAPI", e);
-            }
+    private GenerationResult toCreateResult(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("MusicAPI create failed: HTTP "
+                    + response.statusCode() + " - " + response.body());
         }
+        return parseGenerationResultCreate(response.body());
+    }
 
-        // Only call it timeout if we never got an audio URL or a terminal status
-        if (lastResult.getAudioUrl() == null || lastResult.getAudioUrl().isBlank()) {
-            lastResult.setStatus("timeout");
+    private GenerationResult toPollResult(String taskId, HttpResponse<String> response) throws IOException {
+        int statusCode = response.statusCode();
+        if (statusCode != 200) {
+            throw new IOException("MusicAPI poll failed: HTTP "
+                    + statusCode + " – " + response.body());
         }
-        return lastResult;
+        return parseGenerationResultPoll(taskId, response.body());
     }
 
     // ---------- JSON parsing helpers ----------
@@ -0,0 +1,153 @@
+package org.example.service;
+
+import org.example.model.APIClient;
+import org.example.model.domain.Track;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Walks a paged search result track by track.
+ *
+ * The first {@code parallelPages} pages are requested at once; after that
+ * the next page is always requested as soon as the current one is handed
+ * out, so the network round trip overlaps with consumption. Pages are
+ * consumed strictly in order, tracks already seen (by id) are skipped, and
+ * paging stops at the first short page or after {@code maxTracks}.
+ *
+ * Not thread-safe; close it (or the Stream built on it) to cancel pages
+ * still in flight when you stop early.
+ */
+class TrackPageIterator implements Iterator<Track>, AutoCloseable {
+
+    /** Fetches one page; the future completes with at most {@code limit} tracks. */
+    interface PageFetcher {
+        CompletableFuture<List<Track>> fetch(int offset, int limit);
+    }
+
+    private final PageFetcher fetcher;
+    private final int pageSize;
+    private final int maxTracks;
+    private final int parallelPages;
+
+    private final Deque<CompletableFuture<List<Track>>> pending = new ArrayDeque<>();
+    private final Set<String> seenIds = new HashSet<>();
+    private Iterator<Track> currentPage = Collections.emptyIterator();
+    private Track next;
+    private int nextOffset;
+    private int returned;
+    private boolean started;
+    private boolean lastPageSeen;
+
+    TrackPageIterator(PageFetcher fetcher, int pageSize, int maxTracks, int parallelPages) {
+        this.fetcher = fetcher;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxTracks = Math.max(0, maxTracks);
+        this.parallelPages = Math.max(1, parallelPages);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (returned >= maxTracks) {
+            close();
+            return false;
+        }
+        if (!started) {
+            started = true;
+            for (int i = 0; i < parallelPages && requestNextPage(); i++) {
+                // fill the initial window
+            }
+        }
+        while (true) {
+            while (currentPage.hasNext()) {
+                Track t = currentPage.next();
+                if (t.getId() == null || seenIds.add(t.getId())) {
+                    next = t;
+                    return true;
+                }
+            }
+            if (!advancePage()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public Track next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Track t = next;
+        next = null;
+        returned++;
+        return t;
+    }
+
+    /** Cancel any pages still in flight. */
+    @Override
+    public void close() {
+        lastPageSeen = true;
+        CompletableFuture<List<Track>> page;
+        while ((page = pending.pollFirst()) != null) {
+            page.cancel(true);
+        }
+    }
+
+    /** Take the next page in order, topping up the prefetch window first. */
+    private boolean advancePage() {
+        CompletableFuture<List<Track>> page = pending.pollFirst();
+        if (page == null) {
+            return false;
+        }
+        if (pending.isEmpty()) {
+            // prefetch N+1 while N is being consumed
+            requestNextPage();
+        }
+
+        List<Track> tracks = await(page);
+        if (tracks.size() < pageSize) {
+            // short page: nothing after it, drop speculative requests
+            close();
+        }
+        currentPage = tracks.iterator();
+        return true;
+    }
+
+    private boolean requestNextPage() {
+        if (lastPageSeen || nextOffset >= maxTracks) {
+            return false;
+        }
+        pending.addLast(fetcher.fetch(nextOffset, pageSize));
+        nextOffset += pageSize;
+        return true;
+    }
+
+    private List<Track> await(CompletableFuture<List<Track>> page) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new UncheckedIOException(new IOException("Interrupted while paging search results", e));
+        } catch (ExecutionException | CancellationException e) {
+            close();
+            Throwable cause = APIClient.unwrap(e);
+            IOException io = cause instanceof IOException ioe ? ioe : new IOException(cause);
+            throw new UncheckedIOException(io);
+        }
+    }
+}
@@ -97,6 +97,17 @@ public class MainFrame extends JFrame implements MusicEventListener {
             controller.requestRecommendationsFromUI(query, mode);
         });
 
+        // Recommendations: typeahead from past queries and artists seen in results
+        searchPanel.onQueryEdited(prefix -> controller.requestSuggestions(prefix, searchPanel::showSuggestions));
+
+        // Recommendations: live search (debounced in the controller)
+        searchPanel.onQueryEdited(text -> {
+            if (searchPanel.isLiveSearch()) {
+                controller.requestLiveRecommendationsFromUI(new UserQuery().setText(text),
+                        searchPanel.getSelectedMode());
+            }
+        });
+
         // Recommendations: Cancel
         searchPanel.onCancel(e -> controller.cancelCurrentOperation());
 
@@ -1,8 +1,18 @@
 package org.example.view.panels;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Left-side panel for recommendations: query + mode + buttons.
@@ -14,6 +24,14 @@ public class SearchPanel extends JPanel {
     private final JComboBox<String> cmbMode;
     private final JButton btnSearch;
     private final JButton btnCancel;
+    private final JCheckBox chkLive;
+
+    // Typeahead popup under the query field
+    private final JPopupMenu suggestionPopup = new JPopupMenu();
+    private final DefaultListModel<String> suggestionModel = new DefaultListModel<>();
+    private final JList<String> suggestionList = new JList<>(suggestionModel);
+    // set while a picked suggestion is written into the field, so it does not trigger a new lookup
+    private boolean applyingSuggestion;
 
     public SearchPanel() {
         setLayout(new GridBagLayout());
@@ -40,7 +58,7 @@ public class SearchPanel extends JPanel {
         gbc.weightx = 0;
         add(new JLabel("Mode:"), gbc);
 
-        cmbMode = new JComboBox<>(new String[] { "Mood", "Genre", "Artist" });
+        cmbMode = new JComboBox<>(new String[] { "Mood", "Genre", "Artist", "Hybrid", "Local" });
         gbc.gridx = 1;
         gbc.weightx = 1.0;
         add(cmbMode, gbc);
@@ -51,14 +69,81 @@ public class SearchPanel extends JPanel {
         btnCancel = new JButton("Cancel");
         btnCancel.setEnabled(false);
 
+        chkLive = new JCheckBox("Search as you type");
+
         buttonRow.add(btnSearch);
         buttonRow.add(btnCancel);
+        buttonRow.add(chkLive);
 
         gbc.gridy++;
         gbc.gridx = 0;
         gbc.gridwidth = 2;
         gbc.weightx = 1.0;
         add(buttonRow, gbc);
+
+        initSuggestionPopup();
+    }
+
+    private void initSuggestionPopup() {
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFocusable(false);
+        suggestionPopup.setFocusable(false);
+        suggestionPopup.add(new JScrollPane(suggestionList));
+
+        suggestionList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                acceptSuggestion();
+            }
+        });
+
+        txtQuery.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!suggestionPopup.isVisible()) {
+                    return;
+                }
+                int selected = suggestionList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> {
+                        suggestionList.setSelectedIndex(Math.min(selected + 1, suggestionModel.size() - 1));
+                        e.consume();
+                    }
+                    case KeyEvent.VK_UP -> {
+                        suggestionList.setSelectedIndex(Math.max(selected - 1, 0));
+                        e.consume();
+                    }
+                    case KeyEvent.VK_ENTER -> {
+                        if (selected >= 0) {
+                            acceptSuggestion();
+                            e.consume();
+                        }
+                    }
+                    case KeyEvent.VK_ESCAPE -> suggestionPopup.setVisible(false);
+                    default -> { }
+                }
+            }
+        });
+
+        txtQuery.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                suggestionPopup.setVisible(false);
+            }
+        });
+    }
+
+    private void acceptSuggestion() {
+        String picked = suggestionList.getSelectedValue();
+        suggestionPopup.setVisible(false);
+        if (picked != null) {
+            applyingSuggestion = true;
+            try {
+                txtQuery.setText(picked);
+            } finally {
+                applyingSuggestion = false;
+            }
+        }
     }
 
     // --- Data accessors ---
@@ -79,6 +164,58 @@ public class SearchPanel extends JPanel {
         cmbMode.setSelectedItem(mode);
     }
 
+    public boolean isLiveSearch() {
+        return chkLive.isSelected();
+    }
+
+    public void setLiveSearch(boolean live) {
+        chkLive.setSelected(live);
+    }
+
+    // --- Typeahead ---
+
+    /** Called with the field's text after every edit the user makes. */
+    public void onQueryEdited(Consumer<String> listener) {
+        txtQuery.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                changed();
+            }
+
+            private void changed() {
+                if (!applyingSuggestion) {
+                    listener.accept(txtQuery.getText());
+                }
+            }
+        });
+    }
+
+    /** Show completions under the query field; an empty list hides the popup. */
+    public void showSuggestions(List<String> suggestions) {
+        suggestionModel.clear();
+        if (suggestions.isEmpty() || !txtQuery.isShowing()) {
+            suggestionPopup.setVisible(false);
+            return;
+        }
+        suggestions.forEach(suggestionModel::addElement);
+        suggestionList.setVisibleRowCount(Math.min(suggestions.size(), 8));
+        suggestionList.clearSelection();
+        suggestionPopup.setPopupSize(txtQuery.getWidth(), suggestionList.getPreferredScrollableViewportSize().height + 6);
+        suggestionPopup.show(txtQuery, 0, txtQuery.getHeight());
+        // show() can take the focus away from the field on some look-and-feels
+        txtQuery.requestFocusInWindow();
+    }
+
     // --- Button wiring ---
 
     public void onSearch(ActionListener listener) {
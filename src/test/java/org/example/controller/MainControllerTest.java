@@ -0,0 +1,123 @@
+package org.example.controller;
+
+import org.example.model.AppModel;
+import org.example.model.CancellationToken;
+import org.example.model.cache.QueryTrie;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.model.strategy.RecommendationStrategy;
+import org.example.service.MusicServiceFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainControllerTest {
+
+    /** Records every search text; "slow" blocks until its search is cancelled. */
+    static class FakeStrategy implements RecommendationStrategy {
+        final List<String> searched = new CopyOnWriteArrayList<>();
+        final CountDownLatch slowCancelled = new CountDownLatch(1);
+
+        @Override
+        public List<Track> getRecommendations(UserQuery query) {
+            return getRecommendations(query, null, CancellationToken.NONE);
+        }
+
+        @Override
+        public List<Track> getRecommendations(UserQuery query, Consumer<List<Track>> onRefresh,
+                                              CancellationToken cancellation) {
+            searched.add(query.getText());
+            if ("slow".equals(query.getText())) {
+                while (!cancellation.isCancelled()) {
+                    Thread.onSpinWait();
+                }
+                slowCancelled.countDown();
+                cancellation.throwIfCancelled();
+            }
+            return List.of(new Track().setId(query.getText()).setName(query.getText()));
+        }
+    }
+
+    private final FakeStrategy strategy = new FakeStrategy();
+    private final BlockingQueue<MusicEvent> completed = new LinkedBlockingQueue<>();
+    private MainController controller;
+
+    @BeforeEach
+    void setUp() {
+        MusicServiceFactory factory = new MusicServiceFactory(null, null) {
+            @Override
+            public RecommendationStrategy createRecommendationStrategy(RecommendationMode mode) {
+                return strategy;
+            }
+        };
+        controller = new MainController(new AppModel(), factory, null, null, null, new QueryTrie());
+        controller.setLiveSearch(30, 3);
+        controller.addListener(event -> {
+            if (event.type() == EventType.RECOMMENDATION_COMPLETED) {
+                completed.add(event);
+            }
+        });
+    }
+
+    private MusicEvent awaitCompleted() throws InterruptedException {
+        MusicEvent event = completed.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "search did not complete");
+        return event;
+    }
+
+    private List<String> suggestionsFor(String prefix) throws Exception {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        SwingUtilities.invokeAndWait(() -> controller.requestSuggestions(prefix, result::complete));
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private static UserQuery text(String text) {
+        return new UserQuery().setText(text);
+    }
+
+    @Test
+    void liveSearchRunsOnceTypingPausesAndIsNotRecordedForTypeahead() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            for (String typed : new String[]{"d", "da", "daf", "daft", "daft p", "daft punk"}) {
+                controller.requestLiveRecommendationsFromUI(text(typed), "Mood");
+            }
+        });
+
+        assertEquals("daft punk", awaitCompleted().tracksPayload().get(0).getId());
+        assertEquals(List.of("daft punk"), strategy.searched);
+        assertEquals(List.of(), suggestionsFor("daf"));
+    }
+
+    @Test
+    void explicitSearchIsRecordedForTypeahead() throws Exception {
+        SwingUtilities.invokeAndWait(() -> controller.requestRecommendationsFromUI(text("daft punk"), "Mood"));
+
+        awaitCompleted();
+        assertEquals(List.of("daft punk"), suggestionsFor("daf"));
+    }
+
+    @Test
+    void newerSearchCancelsTheOneStillRunning() throws Exception {
+        SwingUtilities.invokeAndWait(() -> controller.requestLiveRecommendationsFromUI(text("slow"), "Mood"));
+        while (strategy.searched.isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        SwingUtilities.invokeAndWait(() -> controller.requestRecommendationsFromUI(text("fast"), "Mood"));
+
+        assertTrue(strategy.slowCancelled.await(5, TimeUnit.SECONDS), "superseded search was not cancelled");
+        assertEquals("fast", awaitCompleted().tracksPayload().get(0).getId());
+        assertNull(completed.poll(100, TimeUnit.MILLISECONDS), "the superseded search reported a result");
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The non-blocking API against a local HttpServer. */
+class APIClientAsyncTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private APIClient client(String... keyValues) {
+        Properties config = new Properties();
+        config.setProperty("api.hedge.enabled", "false");
+        for (int i = 0; i < keyValues.length; i += 2) {
+            config.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return new APIClient(config);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void asyncGetCompletes() throws Exception {
+        server.createContext("/ok", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 200, "hello");
+        });
+
+        HttpResponse<String> response = client().getAsync(baseUrl + "/ok", null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("hello", response.body());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void cancellingAbortsTheInFlightExchange() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> writeFailed = new CompletableFuture<>();
+        server.createContext("/slow", exchange -> {
+            received.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                // far more than socket buffers hold: writing must fail once the client has hung up
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    byte[] chunk = new byte[64 * 1024];
+                    for (int i = 0; i < 512; i++) {
+                        out.write(chunk);
+                    }
+                }
+                writeFailed.complete(false);
+            } catch (IOException e) {
+                writeFailed.complete(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CompletableFuture<HttpResponse<String>> call = client().getWithRetryAsync(baseUrl + "/slow", null);
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        call.cancel(true);
+        release.countDown();
+
+        assertTrue(call.isCancelled());
+        assertTrue(writeFailed.get(10, TimeUnit.SECONDS), "the exchange was still being read after cancel");
+    }
+
+    @Test
+    void cancellingStopsAPendingRetry() throws Exception {
+        CountDownLatch firstAttempt = new CountDownLatch(1);
+        server.createContext("/unavailable", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 503, "busy");
+            firstAttempt.countDown();
+        });
+        APIClient client = client(
+                "api.maxRetries", "3",
+                "api.backoff.ms", "500",
+                "api.backoff.maxMs", "500",
+                "api.circuit.enabled", "false");
+
+        CompletableFuture<HttpResponse<String>> call = client.getWithRetryAsync(baseUrl + "/unavailable", null);
+        assertTrue(firstAttempt.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100); // the 503 has arrived and the retry timer is set
+        call.cancel(true);
+        Thread.sleep(800);
+
+        assertEquals(1, client.getRetryMetrics().getStatusRetries(), "a retry was scheduled");
+        assertEquals(1, requests.get(), "the retry timer fired after cancel");
+    }
+
+    @Test
+    void rateLimitedSendIsQueuedNotRejected() throws Exception {
+        server.createContext("/v1/search", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 200, "ok");
+        });
+        APIClient client = client(
+                "spotify.apiBaseUrl", baseUrl + "/v1",
+                "spotify.rateLimit.rps", "4",
+                "spotify.rateLimit.burst", "1",
+                "api.rateLimit.mode", "queue",
+                "api.rateLimit.maxWaitMs", "5000");
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> first = client.getAsync(baseUrl + "/v1/search", null);
+        CompletableFuture<HttpResponse<String>> second = client.getAsync(baseUrl + "/v1/search", null);
+
+        assertFalse(second.isDone(), "the second request should wait for its slot");
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).statusCode());
+        assertEquals(200, second.get(5, TimeUnit.SECONDS).statusCode());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs >= 200, "second request went out after " + elapsedMs + " ms");
+        assertEquals(2, requests.get());
+        assertEquals(0, client.getRateLimiters().get("127.0.0.1").getRejectedCount());
+    }
+}
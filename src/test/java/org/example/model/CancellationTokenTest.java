@@ -0,0 +1,57 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CancellationTokenTest {
+
+    @Test
+    void cancellingTokenCancelsBoundFutures() {
+        CancellationToken token = new CancellationToken();
+        CompletableFuture<String> pending = token.bind(new CompletableFuture<>());
+        CompletableFuture<String> done = token.bind(CompletableFuture.completedFuture("ok"));
+
+        token.cancel();
+
+        assertTrue(pending.isCancelled());
+        assertFalse(done.isCancelled());
+        assertThrows(CancellationException.class, token::throwIfCancelled);
+    }
+
+    @Test
+    void bindingAfterCancelCancelsAtOnce() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        assertTrue(token.bind(new CompletableFuture<>()).isCancelled());
+    }
+
+    @Test
+    void noneIsNeverCancelled() {
+        CancellationToken.NONE.cancel();
+        CompletableFuture<String> f = CancellationToken.NONE.bind(new CompletableFuture<>());
+
+        assertFalse(CancellationToken.NONE.isCancelled());
+        assertFalse(f.isCancelled());
+    }
+
+    @Test
+    void cancellationReachesWhicheverComposedStageIsRunning() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+        CompletableFuture<String> composed = APIClient.thenComposeCancellable(first, v -> second);
+
+        first.complete("token");
+        composed.cancel(true);
+
+        assertTrue(second.isCancelled(), "the stage in flight should be cancelled");
+
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        APIClient.thenApplyCancellable(upstream, String::length).cancel(true);
+        assertTrue(upstream.isCancelled());
+    }
+}
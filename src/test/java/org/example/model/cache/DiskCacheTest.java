@@ -0,0 +1,176 @@
+package org.example.model.cache;
+
+import org.example.model.domain.Track;
+import org.example.model.http.Validators;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiskCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void entriesSurviveReopenAndDecodeFromTheMappedFile() throws Exception {
+        List<Track> tracks = List.of(
+                new Track().setId("1").setName("Intro").setArtist("The xx").setAlbum("xx").setPreviewUrl(null),
+                new Track().setId("2").setName("Crystalised").setArtist("The xx").setAlbum("xx").setPreviewUrl("http://p/2"));
+
+        try (DiskCache cache = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            assertTrue(cache.put("chill|0|10", TrackListCodec.encode(tracks), 60_000));
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            ByteBuffer stored = reopened.get("chill|0|10");
+            assertNotNull(stored);
+            List<Track> decoded = TrackListCodec.decode(stored);
+            assertEquals(tracks, decoded);
+            assertEquals("Crystalised", decoded.get(1).getName());
+            assertNull(decoded.get(0).getPreviewUrl());
+            assertNull(reopened.get("missing"));
+        }
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws Exception {
+        AtomicLong now = new AtomicLong(1_000);
+        try (DiskCache cache = new DiskCache(dir, 64 * 1024, 4, 0, now::get)) {
+            cache.put("k", new byte[]{1, 2, 3}, 500);
+            assertNotNull(cache.get("k"));
+
+            now.set(2_000);
+            assertNull(cache.get("k"));
+        }
+    }
+
+    @Test
+    void compactionRewritesLiveRecordsAndDeletesGarbageSegments() throws Exception {
+        byte[] value = new byte[1000];
+        try (DiskCache cache = new DiskCache(dir, 8 * 1024, 10, 0)) {
+            // overwriting the same few keys fills several segments mostly with garbage
+            for (int round = 0; round < 10; round++) {
+                for (int k = 0; k < 3; k++) {
+                    value[0] = (byte) round;
+                    cache.put("key-" + k, value, 60_000);
+                }
+            }
+            int before = cache.getSegmentCount();
+            assertTrue(before > 2);
+
+            cache.compact();
+
+            assertTrue(cache.getSegmentCount() < before);
+            assertEquals(3, cache.getEntryCount());
+            assertEquals(9, cache.get("key-2").get(0));
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 8 * 1024, 10, 0)) {
+            assertEquals(3, reopened.getEntryCount());
+            assertEquals(9, reopened.get("key-0").get(0));
+        }
+    }
+
+    @Test
+    void droppingASegmentLeavesBuffersAlreadyHandedOutReadable() throws Exception {
+        byte[] first = new byte[1000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte) i;
+        }
+        try (DiskCache cache = new DiskCache(dir, 8 * 1024, 2, 0)) {
+            cache.put("first", first, 60_000);
+            ByteBuffer reading = cache.get("first");
+            reading.get(new byte[10]); // a reader part-way through
+
+            // roll over enough segments that the first one is dropped
+            for (int k = 0; k < 30; k++) {
+                assertTrue(cache.put("key-" + k, new byte[1000], 60_000));
+            }
+            assertNull(cache.get("first"));
+            assertFalse(Files.exists(dir.resolve("segment-0.dat")));
+
+            byte[] rest = new byte[reading.remaining()];
+            reading.get(rest);
+            for (int i = 0; i < rest.length; i++) {
+                assertEquals((byte) (i + 10), rest[i]);
+            }
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 8 * 1024, 2, 0)) {
+            assertNull(reopened.get("first"));
+            assertNotNull(reopened.get("key-29"));
+        }
+    }
+
+    @Test
+    void tombstonedSegmentIsDeletedInsteadOfRecovered() throws Exception {
+        try (DiskCache cache = new DiskCache(dir, 8 * 1024, 4, 0)) {
+            cache.put("k", new byte[]{1, 2, 3}, 60_000);
+        }
+        // what a drop leaves behind when the delete failed because the file was still mapped
+        Path segment = dir.resolve("segment-0.dat");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, DiskCache.DROPPED_MAGIC), 0);
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 8 * 1024, 4, 0)) {
+            assertNull(reopened.get("k"));
+            assertEquals(0, reopened.getSegmentCount());
+        }
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void oldValuesFromAnotherCodecVersionDecodeToNull() {
+        assertNull(TrackListCodec.decode(ByteBuffer.wrap(new byte[]{(byte) (TrackListCodec.VERSION + 1), 0})));
+    }
+
+    @Test
+    void searchEntriesKeepTheirValidatorsAcrossReopen() throws Exception {
+        List<Track> tracks = List.of(new Track().setId("1").setName("Intro").setArtist("The xx"));
+        Validators validators = Validators.of("\"v1\"", "Wed, 21 Oct 2026 07:28:00 GMT", -1, 4096);
+
+        try (DiskCache cache = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            cache.put("chill|0|10", TrackListCodec.encode(tracks, validators), 60_000);
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            ByteBuffer stored = reopened.get("chill|0|10");
+            Validators decoded = TrackListCodec.decodeValidators(stored);
+            assertNotNull(decoded);
+            assertTrue(decoded.canRevalidate());
+            assertEquals("\"v1\"", decoded.getEtag());
+            assertEquals("Wed, 21 Oct 2026 07:28:00 GMT", decoded.getLastModified());
+            assertEquals(-1, decoded.getMaxAgeSeconds());
+            assertEquals(4096, decoded.getBodyBytes());
+            assertEquals(tracks, TrackListCodec.decode(stored));
+        }
+        // a bare track list has no validators and is treated as a miss
+        assertNull(TrackListCodec.decodeValidators(ByteBuffer.wrap(TrackListCodec.encode(tracks))));
+    }
+
+    @Test
+    void aDirectoryIsUsedByOneCacheAtATime() throws Exception {
+        try (DiskCache first = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            first.put("k", new byte[]{1}, 60_000);
+
+            assertThrows(IOException.class, () -> new DiskCache(dir, 64 * 1024, 4, 0));
+            // the refused open left the owner alone
+            assertNotNull(first.get("k"));
+        }
+
+        try (DiskCache reopened = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            assertNotNull(reopened.get("k"));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.model.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTrieTest {
+
+    @Test
+    void completesByWeightCaseInsensitively() {
+        QueryTrie trie = new QueryTrie();
+        trie.record("Chill", 1);
+        trie.record("Chillwave", 5);
+        trie.record("chill jazz", 3);
+        trie.record("Classical", 10);
+
+        assertEquals(List.of("Chillwave", "chill jazz", "Chill"), trie.complete("CHI", 3));
+        assertEquals(List.of("Classical", "Chillwave"), trie.complete("c", 2));
+        assertTrue(trie.complete("x", 5).isEmpty());
+        assertTrue(trie.complete("  ", 5).isEmpty());
+    }
+
+    @Test
+    void repeatedPhraseAccumulatesWeightAndKeepsLatestSpelling() {
+        QueryTrie trie = new QueryTrie();
+        trie.record("rock", 2);
+        trie.record("Rock  and roll", 3);
+        trie.record("ROCK", 2);
+
+        assertEquals(2, trie.size());
+        assertEquals(List.of("ROCK", "Rock and roll"), trie.complete("ro", 5));
+    }
+
+    @Test
+    void persistsAcrossOpen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("suggestions.bin");
+        QueryTrie trie = QueryTrie.open(file);
+        trie.record("Daft Punk", 4);
+        trie.record("Dance", 1);
+        trie.save();
+
+        QueryTrie reopened = QueryTrie.open(file);
+
+        assertEquals(List.of("Daft Punk", "Dance"), reopened.complete("da", 5));
+    }
+}
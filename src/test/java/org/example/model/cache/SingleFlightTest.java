@@ -0,0 +1,74 @@
+package org.example.model.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoadAndEntryIsRemovedAfterwards() throws Exception {
+        SingleFlight<String, List<String>> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<List<String>> upstream = new CompletableFuture<>();
+
+        CompletableFuture<List<String>> a = flight.execute("chill", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<List<String>> b = flight.execute("chill", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of("other"));
+        });
+
+        assertEquals(1, flight.inFlightCount());
+        upstream.complete(List.of("track"));
+
+        assertSame(a.get(), b.get(), "both callers should see the same parsed list");
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getJoinedCount());
+        assertEquals(0, flight.inFlightCount(), "finished loads must not linger as a cache");
+
+        // a later call starts a fresh load
+        flight.execute("chill", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of("fresh"));
+        }).get();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void oneCallerCancellingDoesNotCancelOthers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> a = flight.execute("k", () -> upstream);
+        CompletableFuture<String> b = flight.execute("k", () -> upstream);
+
+        a.cancel(true);
+        upstream.complete("done");
+
+        assertEquals("done", b.get());
+    }
+
+    @Test
+    void loadIsCancelledOnceEveryCallerCancels() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> a = flight.execute("k", () -> upstream);
+        CompletableFuture<String> b = flight.execute("k", () -> upstream);
+        a.cancel(true);
+        assertFalse(upstream.isCancelled());
+        b.cancel(true);
+
+        assertTrue(upstream.isCancelled(), "nobody is waiting, so the load should stop");
+        assertEquals(0, flight.inFlightCount());
+        assertEquals("fresh", flight.execute("k", () -> CompletableFuture.completedFuture("fresh")).get());
+        assertEquals(2, flight.getLoadCount());
+    }
+}
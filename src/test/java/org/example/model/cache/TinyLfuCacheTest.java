@@ -0,0 +1,108 @@
+package org.example.model.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void loadsOnceThenServesFromCacheAndCountsHitsAndMisses() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 10, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            String value = cache.get("chill|0|10", k -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture("tracks");
+            }).get();
+            assertEquals("tracks", value);
+        }
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 10, TimeUnit.MINUTES);
+
+        CompletableFuture<String> failed = cache.get("x", k -> CompletableFuture.failedFuture(new RuntimeException("boom")));
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertNull(cache.getIfPresent("x"));
+        assertEquals(1, cache.stats().getLoadFailureCount());
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 0, TimeUnit.SECONDS);
+        cache.put("x", "value");
+
+        assertNull(cache.getIfPresent("x"));
+    }
+
+    @Test
+    void expiredEntryIsRetainedAsStaleAndHandedToTheLoader() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, value -> 0L, TimeUnit.MINUTES.toNanos(10));
+        cache.put("x", "old");
+
+        assertNull(cache.getIfPresent("x"), "zero freshness: never a hit");
+        TinyLfuCache.Entry<String> entry = cache.getEntry("x");
+        assertNotNull(entry);
+        assertFalse(entry.isFresh());
+
+        String reloaded = cache.get("x", (k, stale) -> CompletableFuture.completedFuture(stale + "+revalidated")).get();
+        assertEquals("old+revalidated", reloaded);
+    }
+
+    @Test
+    void refreshReloadsEvenAFreshEntryWithoutCountingALookup() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 10, TimeUnit.MINUTES);
+        cache.put("x", "v1");
+
+        String refreshed = cache.refresh("x", (k, current) -> CompletableFuture.completedFuture(current + "->v2")).get();
+
+        assertEquals("v1->v2", refreshed);
+        assertEquals("v1->v2", cache.getIfPresent("x"));
+        assertEquals(1, cache.stats().getHitCount());
+        assertEquals(0, cache.stats().getMissCount());
+    }
+
+    @Test
+    void negativeFreshnessMeansDoNotCache() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, value -> -1L, 0);
+        cache.put("x", "value");
+
+        assertNull(cache.getEntry("x"));
+    }
+
+    @Test
+    void sizeIsBoundedAndHotKeySurvivesScanOfOneOffKeys() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 10, TimeUnit.MINUTES);
+        cache.put("chill", "hot");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("hot", cache.getIfPresent("chill"));
+        }
+
+        // the hot key keeps being read, but far less often than a plain LRU would need to keep it
+        for (int i = 0; i < 5_000; i++) {
+            cache.put("one-off-" + i, "cold");
+            if (i % 200 == 0) {
+                assertEquals("hot", cache.getIfPresent("chill"), "evicted after " + i + " one-off keys");
+            }
+        }
+
+        assertEquals("hot", cache.getIfPresent("chill"));
+        assertTrue(cache.size() <= 112, "size was " + cache.size());
+        assertTrue(cache.stats().getEvictionCount() > 0);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.model.cache;
+
+import org.example.model.domain.Track;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackIndexTest {
+
+    private static Track track(String id, String name, String artist, String album, int popularity) {
+        return new Track().setId(id).setName(name).setArtist(artist).setAlbum(album).setPopularity(popularity);
+    }
+
+    private static List<String> ids(List<Track> tracks) {
+        List<String> ids = new ArrayList<>();
+        for (Track t : tracks) {
+            ids.add(t.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void searchMatchesAllWordsAcrossFieldsMostPopularFirst() {
+        TrackIndex index = new TrackIndex();
+        index.addAll(List.of(
+                track("1", "Midnight City", "M83", "Hurry Up, We're Dreaming", 70),
+                track("2", "City of Stars", "Ryan Gosling", "La La Land", 80),
+                track("3", "Midnight Rain", "Taylor Swift", "Midnights", 90)));
+
+        assertEquals(List.of("2", "1"), ids(index.search("city", 10)));
+        assertEquals(List.of("1"), ids(index.search("midnight m83", 10)));
+        assertTrue(index.search("midnight jazz", 10).isEmpty());
+        assertEquals(List.of("3"), ids(index.search("midnight", 1)));
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        TrackIndex index = new TrackIndex();
+        index.add(track("1", "Halo", "Beyoncé", "I Am... Sasha Fierce", 50));
+
+        assertEquals(List.of("1"), ids(index.search("BEYONCE", 10)));
+    }
+
+    @Test
+    void searchAnyRanksByMatchedWords() {
+        TrackIndex index = new TrackIndex();
+        index.addAll(List.of(
+                track("1", "Rain", "A", null, 90),
+                track("2", "Rain On Me", "B", "Chromatica", 10),
+                track("3", "Sunshine", "C", null, 50)));
+
+        assertEquals(List.of("2", "1"), ids(index.searchAny("rain me jazz", 10)));
+    }
+
+    @Test
+    void reindexesTrackWhoseTextChanged() {
+        TrackIndex index = new TrackIndex();
+        index.add(track("1", "Old Title", "A", null, 10));
+        index.add(track("1", "New Title", "A", null, 20));
+
+        assertEquals(1, index.size());
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(20, index.search("title", 10).get(0).getPopularity());
+    }
+
+    @Test
+    void persistsAcrossOpen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("index.bin");
+        TrackIndex index = TrackIndex.open(file);
+        index.add(track("1", "Blue Monday", "New Order", "Power, Corruption & Lies", 60));
+        index.save();
+
+        TrackIndex reopened = TrackIndex.open(file);
+
+        assertEquals(1, reopened.size());
+        Track t = reopened.search("monday", 10).get(0);
+        assertEquals("New Order", t.getArtist());
+        assertEquals(60, t.getPopularity());
+    }
+
+    @Test
+    void postingListRoundTripsLargeGaps() {
+        PostingList list = new PostingList();
+        int[] docs = {0, 1, 127, 128, 100_000, 3_000_000};
+        for (int doc : docs) {
+            list.add(doc);
+        }
+        list.add(5); // out of order: ignored
+
+        assertArrayEquals(docs, list.toArray());
+    }
+}
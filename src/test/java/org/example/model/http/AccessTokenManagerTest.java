@@ -0,0 +1,80 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessTokenManagerTest {
+
+    @Test
+    void concurrentCallersShareOneRefresh() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        AccessTokenManager manager = new AccessTokenManager(() -> {
+            release.await();
+            return new AccessTokenManager.AccessToken(
+                    "token-" + fetches.incrementAndGet(), Instant.now().plusSeconds(3600));
+        }, Duration.ofSeconds(60));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(manager::getToken));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> f : results) {
+            assertEquals("token-1", f.get());
+        }
+        assertEquals(1, fetches.get(), "only one token request should be sent");
+        pool.shutdownNow();
+    }
+
+    @Test
+    void invalidateForcesExactlyOneNewFetch() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        AccessTokenManager manager = new AccessTokenManager(() ->
+                new AccessTokenManager.AccessToken(
+                        "token-" + fetches.incrementAndGet(), Instant.now().plusSeconds(3600)),
+                Duration.ofSeconds(60));
+
+        String first = manager.getToken();
+        manager.invalidate(first);
+        // a second 401 for the same stale token must not drop the new one
+        String second = manager.getToken();
+        manager.invalidate(first);
+
+        assertEquals("token-1", first);
+        assertEquals("token-2", second);
+        assertEquals("token-2", manager.getToken());
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void refreshesInBackgroundBeforeExpiry() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        AccessTokenManager manager = new AccessTokenManager(() ->
+                new AccessTokenManager.AccessToken(
+                        "token-" + fetches.incrementAndGet(), Instant.now().plusMillis(5_400)),
+                Duration.ofMillis(5_000));
+
+        assertEquals("token-1", manager.getToken());
+        Thread.sleep(1_000);
+
+        // the refresh happened on the background thread, not on this call
+        assertTrue(fetches.get() >= 2);
+        assertNotEquals("token-1", manager.getToken());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void opensWhenFailureRateCrossesThresholdAndFailsFast() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("api.example.com",
+                10, 4, 0.5, 1.0, 1_000, 60_000, 1);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.acquirePermission();
+            breaker.record(i % 2 == 0, FAST); // 50% failures
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        ServiceUnavailableException e =
+                assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+        assertEquals("api.example.com", e.getHost());
+        assertTrue(e.getRetryAfterMs() > 0);
+    }
+
+    @Test
+    void slowCallsAlsoOpenTheCircuit() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("api.example.com",
+                10, 3, 1.0, 0.6, 100, 60_000, 1);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.acquirePermission();
+            breaker.record(true, TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenTrialSuccessClosesTheCircuit() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("api.example.com",
+                10, 2, 0.5, 1.0, 1_000, 50, 1);
+
+        for (int i = 0; i < 2; i++) {
+            breaker.acquirePermission();
+            breaker.record(false, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+        breaker.acquirePermission(); // trial call allowed
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // only one trial at a time
+        assertThrows(ServiceUnavailableException.class, breaker::acquirePermission);
+
+        breaker.record(true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
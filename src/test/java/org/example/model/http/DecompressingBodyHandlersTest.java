@@ -0,0 +1,91 @@
+package org.example.model.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecompressingBodyHandlersTest {
+
+    private static final String JSON = "{\"tracks\":{\"items\":[" +
+            "{\"name\":\"same\"},".repeat(200) + "{\"name\":\"last\"}]}}";
+
+    private HttpServer server;
+    private URI uri;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        // Tiny local server that gzips whenever the client asks for it
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", exchange -> {
+            byte[] body = JSON.getBytes(StandardCharsets.UTF_8);
+            String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (accept != null && accept.contains("gzip")) {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+                    gz.write(body);
+                }
+                body = buf.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/search");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void decodesGzipStreamAndCountsBytes() throws Exception {
+        CompressionMetrics metrics = new CompressionMetrics();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", DecompressingBodyHandlers.ACCEPT_ENCODING)
+                .build();
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(request, DecompressingBodyHandlers.ofInputStream(metrics));
+
+        String decoded;
+        try (InputStream body = response.body()) {
+            decoded = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertEquals(JSON, decoded);
+        assertEquals(1, metrics.getCompressedResponses());
+        assertEquals(JSON.length(), metrics.getDecompressedBytes());
+        assertTrue(metrics.getCompressedBytes() < metrics.getDecompressedBytes() / 5,
+                "repetitive JSON should compress well: " + metrics);
+    }
+
+    @Test
+    void passesUncompressedStringsThrough() throws Exception {
+        CompressionMetrics metrics = new CompressionMetrics();
+
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(uri).build(), DecompressingBodyHandlers.ofString(metrics));
+
+        assertEquals(JSON, response.body());
+        assertEquals(1, metrics.getUncompressedResponses());
+        assertEquals(0, metrics.getCompressedBytes());
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgePolicyTest {
+
+    @Test
+    void noHedgingUntilEnoughSamplesThenUsesPercentile() {
+        HedgePolicy policy = new HedgePolicy(0.9, 10, 10, 60_000, new RetryBudget(0.1, 5));
+
+        assertEquals(HedgePolicy.NO_HEDGE, policy.hedgeDelayMs("api.spotify.com"));
+
+        for (int i = 0; i < 9; i++) {
+            policy.recordLatency("api.spotify.com", 100);
+        }
+        assertEquals(HedgePolicy.NO_HEDGE, policy.hedgeDelayMs("api.spotify.com"));
+
+        policy.recordLatency("api.spotify.com", 3_000);
+        long delay = policy.hedgeDelayMs("api.spotify.com");
+        // p90 of nine 100 ms calls and one slow call lands in the 100 ms bucket
+        assertTrue(delay >= 100 && delay <= 128, "unexpected hedge delay " + delay);
+    }
+
+    @Test
+    void budgetCapsHedgeRate() {
+        HedgePolicy policy = new HedgePolicy(0.9, 10, 1, 60_000, new RetryBudget(0.0, 2));
+
+        assertTrue(policy.tryAcquireHedge());
+        assertTrue(policy.tryAcquireHedge());
+        assertFalse(policy.tryAcquireHedge());
+
+        assertEquals(2, policy.getHedgesSent());
+        assertEquals(1, policy.getBudgetExhausted());
+    }
+}
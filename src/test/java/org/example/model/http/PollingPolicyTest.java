@@ -0,0 +1,57 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollingPolicyTest {
+
+    @Test
+    void backsOffExponentiallyUpToTheCapWithoutHistory() {
+        PollingPolicy policy = new PollingPolicy(1_000, 4_000, 2.0, 60_000, 5);
+
+        assertEquals(1_000, policy.nextDelayMs(0, 0));
+        assertEquals(2_000, policy.nextDelayMs(1_000, 1_000));
+        assertEquals(4_000, policy.nextDelayMs(3_000, 2_000));
+        assertEquals(4_000, policy.nextDelayMs(7_000, 4_000));
+    }
+
+    @Test
+    void deadlineBoundsTotalWaitNotPollCount() {
+        PollingPolicy policy = new PollingPolicy(1_000, 8_000, 2.0, 10_000, 5);
+
+        // the last gap is shortened so one poll lands on the deadline
+        assertEquals(3_000, policy.nextDelayMs(7_000, 8_000));
+        assertEquals(PollingPolicy.STOP, policy.nextDelayMs(10_000, 3_000));
+    }
+
+    @Test
+    void followsObservedCompletionTimesOnceLearned() {
+        PollingPolicy policy = new PollingPolicy(1_000, 8_000, 2.0, 120_000, 5);
+        for (long ms : new long[]{30_000, 32_000, 35_000, 38_000, 40_000}) {
+            policy.recordCompletion(ms);
+        }
+        assertEquals(5, policy.getSampleCount());
+
+        // nothing finishes before ~30 s: wait until then in one gap
+        assertEquals(30_000, policy.nextDelayMs(0, 0));
+        // inside the completion window: poll at the fast interval
+        assertEquals(1_000, policy.nextDelayMs(34_000, 8_000));
+        // past the usual window: back off again
+        assertEquals(4_000, policy.nextDelayMs(45_000, 2_000));
+    }
+
+    @Test
+    void keepsOnlyRecentCompletions() {
+        PollingPolicy policy = new PollingPolicy(1_000, 8_000, 2.0, 600_000, 1);
+        for (int i = 0; i < PollingPolicy.SAMPLE_WINDOW; i++) {
+            policy.recordCompletion(100_000);
+        }
+        for (int i = 0; i < PollingPolicy.SAMPLE_WINDOW; i++) {
+            policy.recordCompletion(20_000);
+        }
+
+        assertEquals(PollingPolicy.SAMPLE_WINDOW, policy.getSampleCount());
+        assertEquals(20_000, policy.nextDelayMs(0, 0));
+    }
+}
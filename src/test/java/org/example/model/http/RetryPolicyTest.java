@@ -0,0 +1,55 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    private RetryPolicy policy(int maxTokens) {
+        return new RetryPolicy(3, 100, 1_000, 5_000,
+                Set.of(429, 503), new RetryBudget(0.0, maxTokens));
+    }
+
+    @Test
+    void retriesConfiguredStatusesWithJitteredBackoffWithinBounds() {
+        RetryPolicy policy = policy(100);
+
+        long previous = 0;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long delay = policy.delayAfterStatus(attempt, previous, 503, null);
+            assertTrue(delay >= 100 && delay <= 1_000, "delay out of bounds: " + delay);
+            previous = delay;
+        }
+        // attempt limit reached
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayAfterStatus(3, previous, 503, null));
+        // not a retryable status
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayAfterStatus(0, 0, 404, null));
+
+        assertEquals(3, policy.getMetrics().getStatusRetries());
+    }
+
+    @Test
+    void honorsRetryAfterButGivesUpWhenItIsTooLong() {
+        RetryPolicy policy = policy(100);
+
+        assertEquals(2_000, policy.delayAfterStatus(0, 0, 429, "2"));
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayAfterStatus(0, 0, 429, "60"));
+    }
+
+    @Test
+    void budgetStopsRetriesWhenExhausted() {
+        RetryPolicy policy = policy(2);
+
+        IOException failure = new IOException("connection reset");
+        assertNotEquals(RetryPolicy.NO_RETRY, policy.delayAfterFailure(0, 0, failure));
+        assertNotEquals(RetryPolicy.NO_RETRY, policy.delayAfterFailure(0, 0, failure));
+        assertEquals(RetryPolicy.NO_RETRY, policy.delayAfterFailure(0, 0, failure));
+
+        assertEquals(2, policy.getMetrics().getIoRetries());
+        assertEquals(1, policy.getMetrics().getBudgetExhausted());
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstGoesThroughThenCallersAreQueued() throws Exception {
+        // 10 rps = one slot every 100 ms, 3 allowed back-to-back
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("example.com", 10, 3, 5_000);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+
+        long wait = limiter.reserve();
+        assertTrue(wait > 0 && wait <= 100, "4th call should wait about one interval: " + wait);
+
+        assertEquals(4, limiter.getWaitHistogram().getCount());
+    }
+
+    @Test
+    void failFastRejectsInsteadOfQueueing() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("example.com", 1, 1, 0);
+
+        assertEquals(0, limiter.reserve());
+        assertThrows(RateLimitExceededException.class, limiter::reserve);
+        assertEquals(1, limiter.getRejectedCount());
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.model.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorsTest {
+
+    private static HttpHeaders headers(Map<String, List<String>> map) {
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+
+    @Test
+    void readsValidatorsAndCacheControl() {
+        Validators v = Validators.from(headers(Map.of(
+                "ETag", List.of("\"abc\""),
+                "Last-Modified", List.of("Wed, 21 Oct 2026 07:28:00 GMT"),
+                "Cache-Control", List.of("public, max-age=300"))));
+
+        assertEquals("\"abc\"", v.getEtag());
+        assertEquals(300, v.getMaxAgeSeconds());
+        assertFalse(v.isNoStore());
+        assertTrue(v.canRevalidate());
+
+        HttpRequest request = v.applyTo(HttpRequest.newBuilder(URI.create("http://localhost/"))).build();
+        assertEquals("\"abc\"", request.headers().firstValue("If-None-Match").orElseThrow());
+        assertEquals("Wed, 21 Oct 2026 07:28:00 GMT",
+                request.headers().firstValue("If-Modified-Since").orElseThrow());
+    }
+
+    @Test
+    void noValidatorsMeansNothingToRevalidate() {
+        Validators v = Validators.from(headers(Map.of("Cache-Control", List.of("no-store"))));
+
+        assertFalse(v.canRevalidate());
+        assertTrue(v.isNoStore());
+        assertEquals(-1, v.getMaxAgeSeconds());
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.model.strategy;
+
+import org.example.model.APIClient;
+import org.example.model.CancellationToken;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.service.SpotifyService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridRecommendationStrategyTest {
+
+    /**
+     * Answers each search text from a fixed map; unknown texts never complete.
+     * Keeps each search's refresh callback so a test can fire it later.
+     */
+    static class FakeSpotifyService extends SpotifyService {
+        private final Map<String, List<Track>> results;
+        final Map<String, Consumer<List<Track>>> refreshes = new ConcurrentHashMap<>();
+
+        FakeSpotifyService(Map<String, List<Track>> results) {
+            super(APIClient.getInstance());
+            this.results = results;
+        }
+
+        @Override
+        public CompletableFuture<List<Track>> searchTracksAsync(UserQuery query, Consumer<List<Track>> onRefresh) {
+            if (onRefresh != null) {
+                refreshes.put(query.getText(), onRefresh);
+            }
+            List<Track> tracks = results.get(query.getText());
+            return tracks != null ? CompletableFuture.completedFuture(tracks) : new CompletableFuture<>();
+        }
+    }
+
+    private static Track track(String id) {
+        return new Track().setId(id).setName(id);
+    }
+
+    @Test
+    void fusesBranchesAndRanksTracksFoundBySeveralSearchesFirst() throws IOException {
+        FakeSpotifyService spotify = new FakeSpotifyService(Map.of(
+                "sleepy", List.of(track("a"), track("b")),
+                "genre:\"ambient\"", List.of(track("c"), track("b")),
+                "artist:\"eno\"", List.of(track("d"))));
+        HybridRecommendationStrategy strategy = new HybridRecommendationStrategy(spotify, 1000, 1, 1, 1);
+
+        List<Track> tracks = strategy.getRecommendations(new UserQuery()
+                .setMood("sleepy").setGenre("ambient").setArtist("eno"));
+
+        assertEquals(4, tracks.size(), "duplicates collapse into one entry");
+        assertEquals("b", tracks.get(0).getId(), "found by two branches");
+    }
+
+    @Test
+    void returnsPartialResultsWhenABranchMissesTheDeadline() throws IOException {
+        FakeSpotifyService spotify = new FakeSpotifyService(Map.of(
+                "lofi", List.of(track("a"))));
+        HybridRecommendationStrategy strategy = new HybridRecommendationStrategy(spotify, 100, 1, 1, 1);
+
+        long start = System.nanoTime();
+        List<Track> tracks = strategy.getRecommendations(new UserQuery().setText("lofi"));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of(track("a")), tracks);
+        assertTrue(elapsedMs < 2000, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void failsWhenNoBranchFinishes() {
+        HybridRecommendationStrategy strategy =
+                new HybridRecommendationStrategy(new FakeSpotifyService(Map.of()), 50, 1, 1, 1);
+
+        assertThrows(IOException.class, () -> strategy.getRecommendations(new UserQuery().setText("x")));
+    }
+
+    @Test
+    void refreshedBranchIsFusedAgainAndPassedToOnRefresh() throws IOException {
+        FakeSpotifyService spotify = new FakeSpotifyService(Map.of(
+                "sleepy", List.of(track("a"), track("b")),
+                "genre:\"ambient\"", List.of(track("c"))));
+        HybridRecommendationStrategy strategy = new HybridRecommendationStrategy(spotify, 1000, 1, 1, 1);
+        AtomicReference<List<Track>> refreshed = new AtomicReference<>();
+
+        List<Track> tracks = strategy.getRecommendations(new UserQuery().setMood("sleepy").setGenre("ambient"),
+                refreshed::set, CancellationToken.NONE);
+        assertEquals(3, tracks.size());
+        assertNull(refreshed.get());
+
+        // the genre search comes back changed: it now also finds "b"
+        spotify.refreshes.get("genre:\"ambient\"").accept(List.of(track("b"), track("c")));
+
+        List<Track> fused = refreshed.get();
+        assertNotNull(fused, "a branch refresh should reach onRefresh");
+        assertEquals(3, fused.size(), "the untouched branch is still part of the fusion");
+        assertEquals("b", fused.get(0).getId(), "found by both branches after the refresh");
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.model.strategy;
+
+import org.example.model.cache.TrackIndex;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalIndexRecommendationStrategyTest {
+
+    private static Track track(String id, String name) {
+        return new Track().setId(id).setName(name).setArtist("Artist " + id);
+    }
+
+    @Test
+    void answersLocallyWhenEnoughTracksMatch() throws IOException {
+        TrackIndex index = new TrackIndex();
+        index.addAll(List.of(track("1", "Chill Vibes"), track("2", "Chill Out")));
+        AtomicInteger networkCalls = new AtomicInteger();
+        RecommendationStrategy network = q -> {
+            networkCalls.incrementAndGet();
+            return List.of();
+        };
+
+        List<Track> result = new LocalIndexRecommendationStrategy(index, network, 2, 10, null)
+                .getRecommendations(new UserQuery().setMood("chill"));
+
+        assertEquals(2, result.size());
+        assertEquals(0, networkCalls.get());
+    }
+
+    @Test
+    void goesToNetworkWhenLocalRecallIsLow() throws IOException {
+        TrackIndex index = new TrackIndex();
+        index.add(track("1", "Chill Vibes"));
+        List<Track> remote = List.of(track("9", "Remote"));
+
+        List<Track> result = new LocalIndexRecommendationStrategy(index, q -> remote, 2, 10, null)
+                .getRecommendations(new UserQuery().setText("chill"));
+
+        assertEquals(remote, result);
+    }
+
+    @Test
+    void servesPartialLocalMatchesWhenNetworkFails() throws IOException {
+        TrackIndex index = new TrackIndex();
+        index.add(track("1", "Rainy Day"));
+        RecommendationStrategy offline = q -> {
+            throw new IOException("network down");
+        };
+        LocalIndexRecommendationStrategy strategy = new LocalIndexRecommendationStrategy(index, offline, 5, 10, null);
+
+        assertEquals("1", strategy.getRecommendations(new UserQuery().setText("rainy night")).get(0).getId());
+        assertThrows(IOException.class, () -> strategy.getRecommendations(new UserQuery().setText("techno")));
+    }
+}
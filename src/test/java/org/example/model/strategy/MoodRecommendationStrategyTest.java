@@ -1,13 +1,16 @@
 package org.example.model.strategy;
 
 import org.example.model.APIClient;
+import org.example.model.CancellationToken;
 import org.example.model.domain.Track;
 import org.example.model.domain.UserQuery;
 import org.example.service.SpotifyService;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +24,7 @@ class MoodRecommendationStrategyTest {
     static class FakeSpotifyService extends SpotifyService {
 
         UserQuery lastQueryPassed;
+        int lastPoolSize;
 
         FakeSpotifyService() {
             // We still need an APIClient for the superclass constructor,
@@ -40,6 +44,19 @@ class MoodRecommendationStrategyTest {
             lastQueryPassed = query;
             return List.of(new Track().setName("Fake"));
         }
+
+        @Override
+        public List<Track> searchTrackPool(UserQuery query, int maxTracks, Consumer<List<Track>> onRefresh,
+                                           CancellationToken cancellation) {
+            lastQueryPassed = query;
+            lastPoolSize = maxTracks;
+            List<Track> pool = new ArrayList<>();
+            for (int i = 0; i < maxTracks; i++) {
+                pool.add(new Track().setId("t" + i).setName("Song " + i).setArtist("Artist " + (i % 7))
+                        .setPopularity(i % 100));
+            }
+            return pool;
+        }
     }
 
     @Test
@@ -61,4 +78,30 @@ class MoodRecommendationStrategyTest {
         assertNotNull(spotify.lastQueryPassed);
         assertEquals("sleepy", spotify.lastQueryPassed.getText());
     }
+
+    @Test
+    void rankerGetsAFullCandidatePoolAndTrimsToTopK() throws IOException {
+        FakeSpotifyService spotify = new FakeSpotifyService();
+        TrackRanker ranker = new TrackRanker().setTopK(20);
+        MoodRecommendationStrategy strategy = new MoodRecommendationStrategy(spotify, ranker);
+
+        List<Track> tracks = strategy.getRecommendations(new UserQuery().setText("song"));
+
+        assertEquals(ranker.getCandidatePoolSize(), spotify.lastPoolSize);
+        assertTrue(spotify.lastPoolSize > ranker.getTopK());
+        assertEquals(20, tracks.size());
+        assertEquals("song", spotify.lastQueryPassed.getText());
+    }
+
+    @Test
+    void configuredPoolSizeKeepsRankingToOnePage() throws IOException {
+        FakeSpotifyService spotify = new FakeSpotifyService();
+        MoodRecommendationStrategy strategy = new MoodRecommendationStrategy(spotify,
+                new TrackRanker().setTopK(10).setCandidatePoolSize(50));
+
+        List<Track> tracks = strategy.getRecommendations(new UserQuery().setText("song"));
+
+        assertEquals(50, spotify.lastPoolSize);
+        assertEquals(10, tracks.size());
+    }
 }
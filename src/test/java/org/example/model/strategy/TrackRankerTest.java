@@ -0,0 +1,93 @@
+package org.example.model.strategy;
+
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackRankerTest {
+
+    private static Track track(String id, String name, String artist, int popularity, int releaseYear) {
+        return new Track().setId(id).setName(name).setArtist(artist)
+                .setPopularity(popularity).setReleaseYear(releaseYear);
+    }
+
+    @Test
+    void textMatchOutranksPopularity() {
+        TrackRanker ranker = new TrackRanker().setDiversityPenalty(0);
+        List<Track> candidates = List.of(
+                track("a", "Party Anthem", "X", 100, 0),
+                track("b", "Rainy Day Blues", "Y", 10, 0));
+
+        List<Track> ranked = ranker.rank(new UserQuery().setText("rainy blues"), candidates);
+
+        assertEquals(List.of("b", "a"), ids(ranked));
+    }
+
+    @Test
+    void newerReleaseWinsTextTie() {
+        TrackRanker ranker = new TrackRanker().setDiversityPenalty(0).setPopularityWeight(0);
+        List<Track> candidates = List.of(
+                track("old", "Song", "X", 50, 1970),
+                track("new", "Song", "Y", 50, 2024));
+
+        assertEquals(List.of("new", "old"), ids(ranker.rank(new UserQuery().setText("song"), candidates)));
+    }
+
+    @Test
+    void repeatedArtistIsPenalised() {
+        TrackRanker ranker = new TrackRanker().setTextWeight(0).setRecencyWeight(0).setDiversityPenalty(0.5);
+        List<Track> candidates = List.of(
+                track("a1", "One", "A", 90, 0),
+                track("a2", "Two", "A", 89, 0),
+                track("b1", "Three", "B", 60, 0));
+
+        // a2 scores 0.445 - 0.5 after a1 is picked, below b1's 0.3
+        assertEquals(List.of("a1", "b1", "a2"), ids(ranker.rank(new UserQuery(), candidates)));
+    }
+
+    @Test
+    void keepsOnlyTopKAndHandlesLargeParallelScoredSets() {
+        TrackRanker ranker = new TrackRanker().setTextWeight(0).setRecencyWeight(0).setDiversityPenalty(0).setTopK(5);
+        List<Track> candidates = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            candidates.add(track("t" + i, "n", "artist" + i, i % 101, 0));
+        }
+
+        List<Track> ranked = ranker.rank(new UserQuery(), candidates);
+
+        assertEquals(5, ranked.size());
+        for (Track t : ranked) {
+            assertEquals(100, t.getPopularity());
+        }
+        Set<String> unique = new HashSet<>(ids(ranked));
+        assertEquals(5, unique.size());
+    }
+
+    @Test
+    void configuredPoolSizeCapsTheCandidatesToFetch() {
+        assertEquals(30, new TrackRanker().setTopK(10).getCandidatePoolSize());
+        assertEquals(50, new TrackRanker().setTopK(10).setCandidatePoolSize(50).getCandidatePoolSize());
+        // never fewer candidates than results to show
+        assertEquals(20, new TrackRanker().setTopK(20).setCandidatePoolSize(5).getCandidatePoolSize());
+    }
+
+    @Test
+    void emptyCandidatesGiveEmptyList() {
+        assertTrue(new TrackRanker().rank(new UserQuery().setText("x"), List.of()).isEmpty());
+    }
+
+    private static List<String> ids(List<Track> tracks) {
+        List<String> ids = new ArrayList<>();
+        for (Track t : tracks) {
+            ids.add(t.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.service;
+
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.model.strategy.RecommendationStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRecommendationServiceTest {
+
+    @Test
+    void runsUpToTheCapConcurrentlyAndReportsFailuresInOrder() throws IOException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        RecommendationStrategy strategy = query -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            if (query.getText().equals("bad")) {
+                throw new IOException("HTTP 500");
+            }
+            return List.of(new Track().setId(query.getText()));
+        };
+
+        List<UserQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(new UserQuery().setText(i == 7 ? "bad" : "q" + i));
+        }
+
+        BatchRecommendationService batch = new BatchRecommendationService(null, 4);
+        List<BatchRecommendationService.Result> results = batch.getRecommendations(queries, strategy, r -> { });
+
+        assertEquals(20, results.size());
+        assertEquals("q0", results.get(0).getTracks().get(0).getId());
+        assertFalse(results.get(7).isSuccess());
+        assertEquals("HTTP 500", results.get(7).getError().getMessage());
+        assertEquals(1, BatchRecommendationService.countFailures(results));
+        assertTrue(maxRunning.get() <= 4, "ran " + maxRunning.get() + " at once");
+        assertTrue(maxRunning.get() > 1, "should run in parallel");
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.service;
+
+import org.example.model.domain.GenerationResult;
+import org.example.model.http.PollingPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationCallbackServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger polls = new AtomicInteger();
+    private GenerationCallbackServer server;
+    private GenerationTracker tracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = GenerationCallbackServer.start("127.0.0.1", 0, "/musicapi/callback", "");
+        // slow safety-net polling that never finishes a task by itself
+        tracker = new GenerationTracker(taskId -> {
+            polls.incrementAndGet();
+            return CompletableFuture.completedFuture(new GenerationResult().setTaskId(taskId).setStatus("running"));
+        }, new PollingPolicy(60_000, 60_000, 1.0, 120_000, Integer.MAX_VALUE));
+        server.onCallback(tracker::complete);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /** Stand-in for MusicAPI: POST a completion payload to the given URL. */
+    private int postCallback(String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String completion(String taskId, String state, String audioUrl) {
+        return "{\"code\":200,\"message\":\"success\",\"data\":[{\"task_id\":\"" + taskId
+                + "\",\"state\":\"" + state + "\",\"audio_url\":" + (audioUrl == null ? "null" : "\"" + audioUrl + "\"")
+                + "}]}";
+    }
+
+    @Test
+    void callbackCompletesThePendingTaskWithoutPolling() throws Exception {
+        CompletableFuture<GenerationResult> pending = tracker.track("task-1");
+
+        int status = postCallback(server.getCallbackUrl(),
+                completion("task-1", "succeeded", "https://cdn.example.com/task-1.mp3"));
+
+        assertEquals(200, status);
+        GenerationResult result = pending.get(5, TimeUnit.SECONDS);
+        assertEquals("https://cdn.example.com/task-1.mp3", result.getAudioUrl());
+        assertEquals("succeeded", result.getStatus());
+        assertEquals(0, polls.get());
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    void callbackArrivingBeforeTheTaskIsTrackedIsNotLost() throws Exception {
+        // MusicAPI can call back before the create response has handed us the task id
+        assertEquals(200, postCallback(server.getCallbackUrl(),
+                completion("task-2", "succeeded", "https://cdn.example.com/task-2.mp3")));
+
+        GenerationResult result = tracker.track("task-2").get(5, TimeUnit.SECONDS);
+
+        assertEquals("https://cdn.example.com/task-2.mp3", result.getAudioUrl());
+        assertEquals(0, polls.get());
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    void callbackUrlPointsAtTheBoundPort() {
+        assertTrue(server.getCallbackUrl().startsWith(
+                "http://localhost:" + server.getPort() + "/musicapi/callback?token="));
+    }
+
+    @Test
+    void rejectsCallbacksWithoutTheToken() throws Exception {
+        CompletableFuture<GenerationResult> pending = tracker.track("task-1");
+        String withoutToken = "http://localhost:" + server.getPort() + "/musicapi/callback";
+        String body = completion("task-1", "succeeded", "https://evil.example.com/x.mp3");
+
+        assertEquals(403, postCallback(withoutToken, body));
+        assertEquals(403, postCallback(withoutToken + "?token=guess", body));
+        assertFalse(pending.isDone());
+        pending.cancel(true);
+    }
+
+    @Test
+    void ignoresUnknownTasksAndIntermediateStates() throws Exception {
+        CompletableFuture<GenerationResult> pending = tracker.track("task-1");
+
+        assertEquals(200, postCallback(server.getCallbackUrl(), completion("other-task", "succeeded", "https://x/1.mp3")));
+        assertEquals(200, postCallback(server.getCallbackUrl(), completion("task-1", "running", null)));
+        assertFalse(pending.isDone());
+
+        assertEquals(200, postCallback(server.getCallbackUrl(), completion("task-1", "failed", null)));
+        assertEquals("failed", pending.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void rejectsMalformedPayloads() throws Exception {
+        assertEquals(400, postCallback(server.getCallbackUrl(), "not json"));
+        assertEquals(400, postCallback(server.getCallbackUrl(), "{\"data\":[]}"));
+    }
+
+    @Test
+    void parsesTopLevelTaskId() {
+        GenerationResult result = GenerationCallbackServer.parseCallback(
+                "{\"task_id\":\"t-9\",\"data\":[{\"state\":\"succeeded\",\"audio_url\":\"https://x/9.mp3\"}]}");
+
+        assertEquals("t-9", result.getTaskId());
+        assertEquals("succeeded", result.getStatus());
+        assertEquals("https://x/9.mp3", result.getAudioUrl());
+    }
+}
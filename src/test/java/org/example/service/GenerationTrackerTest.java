@@ -0,0 +1,174 @@
+package org.example.service;
+
+import org.example.model.domain.GenerationResult;
+import org.example.model.http.PollingPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationTrackerTest {
+
+    private static PollingPolicy fastPolicy(long deadlineMs) {
+        return new PollingPolicy(1, 2, 2.0, deadlineMs, 5);
+    }
+
+    private static GenerationResult running(String taskId) {
+        return new GenerationResult().setTaskId(taskId).setStatus("running");
+    }
+
+    @Test
+    void completesThousandsOfTasksFromOneScheduler() throws Exception {
+        Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+        GenerationTracker tracker = new GenerationTracker(taskId -> {
+            int n = polls.computeIfAbsent(taskId, k -> new AtomicInteger()).incrementAndGet();
+            GenerationResult result = n < 3
+                    ? running(taskId)
+                    : new GenerationResult().setTaskId(taskId).setStatus("succeeded")
+                            .setAudioUrl("https://example.com/" + taskId + ".mp3");
+            return CompletableFuture.completedFuture(result);
+        }, fastPolicy(30_000));
+
+        List<CompletableFuture<GenerationResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(tracker.track("task-" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(20, TimeUnit.SECONDS);
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("https://example.com/task-" + i + ".mp3", futures.get(i).get().getAudioUrl());
+            assertEquals(3, polls.get("task-" + i).get());
+        }
+        // completions feed the policy's learned schedule
+        assertTrue(tracker.getPollingPolicy().getSampleCount() > 0);
+    }
+
+    @Test
+    void reportsTimeoutOnceTheDeadlinePasses() throws Exception {
+        GenerationTracker tracker = new GenerationTracker(
+                taskId -> CompletableFuture.completedFuture(running(taskId)), fastPolicy(50));
+
+        GenerationResult result = tracker.track("slow").get(5, TimeUnit.SECONDS);
+
+        assertEquals("timeout", result.getStatus());
+        assertEquals("slow", result.getTaskId());
+    }
+
+    @Test
+    void cancellingStopsPolling() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        GenerationTracker tracker = new GenerationTracker(taskId -> {
+            polls.incrementAndGet();
+            return CompletableFuture.completedFuture(running(taskId));
+        }, fastPolicy(60_000));
+
+        CompletableFuture<GenerationResult> future = tracker.track("t");
+        while (polls.get() < 3) {
+            Thread.sleep(1);
+        }
+        future.cancel(true);
+        Thread.sleep(20);
+        int afterCancel = polls.get();
+        Thread.sleep(50);
+
+        assertEquals(afterCancel, polls.get());
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    void pollFailureFailsTheTask() {
+        GenerationTracker tracker = new GenerationTracker(
+                taskId -> CompletableFuture.failedFuture(new IOException("HTTP 500")), fastPolicy(60_000));
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> tracker.track("t").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    @Test
+    void onlySuccessfulCompletionsTeachThePolicy() throws Exception {
+        GenerationTracker tracker = new GenerationTracker(taskId -> CompletableFuture.completedFuture(
+                new GenerationResult().setTaskId(taskId).setStatus(taskId.startsWith("bad") ? "failed" : "succeeded")),
+                fastPolicy(60_000));
+
+        assertEquals("failed", tracker.track("bad-1").get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, tracker.getPollingPolicy().getSampleCount());
+
+        assertEquals("succeeded", tracker.track("good").get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, tracker.getPollingPolicy().getSampleCount());
+    }
+
+    @Test
+    void trackingTheSameTaskTwicePollsItOnce() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        GenerationTracker tracker = new GenerationTracker(taskId -> {
+            int n = polls.incrementAndGet();
+            return CompletableFuture.completedFuture(n < 3
+                    ? running(taskId)
+                    : new GenerationResult().setTaskId(taskId).setStatus("succeeded").setAudioUrl("https://x/t.mp3"));
+        }, fastPolicy(60_000));
+
+        CompletableFuture<GenerationResult> first = tracker.track("t");
+        CompletableFuture<GenerationResult> second = tracker.track("t");
+
+        assertNotSame(first, second);
+        assertEquals("https://x/t.mp3", first.get(5, TimeUnit.SECONDS).getAudioUrl());
+        assertEquals("https://x/t.mp3", second.get(5, TimeUnit.SECONDS).getAudioUrl());
+        assertEquals(3, polls.get());
+    }
+
+    @Test
+    void oneCallerCancellingDoesNotAbortTheOther() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        GenerationTracker tracker = new GenerationTracker(taskId -> {
+            polls.incrementAndGet();
+            return CompletableFuture.completedFuture(running(taskId));
+        }, fastPolicy(60_000));
+
+        CompletableFuture<GenerationResult> first = tracker.track("t");
+        CompletableFuture<GenerationResult> second = tracker.track("t");
+        first.cancel(true);
+        int afterCancel = polls.get();
+        Thread.sleep(30);
+
+        assertFalse(second.isDone());
+        assertTrue(polls.get() > afterCancel, "polling should continue for the remaining caller");
+        assertEquals(1, tracker.pendingCount());
+        // the shared task cannot be finished from a caller's view either
+        second.complete(new GenerationResult().setStatus("forged"));
+        assertEquals(1, tracker.pendingCount());
+    }
+
+    @Test
+    void pollingStopsOnceEveryCallerCancels() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        GenerationTracker tracker = new GenerationTracker(taskId -> {
+            polls.incrementAndGet();
+            return CompletableFuture.completedFuture(running(taskId));
+        }, fastPolicy(60_000));
+
+        CompletableFuture<GenerationResult> first = tracker.track("t");
+        CompletableFuture<GenerationResult> second = tracker.track("t");
+        first.cancel(true);
+        second.cancel(true);
+        Thread.sleep(20);
+        int afterCancel = polls.get();
+        Thread.sleep(30);
+
+        assertEquals(afterCancel, polls.get());
+        assertEquals(0, tracker.pendingCount());
+        // a new caller starts a fresh task rather than joining the abandoned one
+        CompletableFuture<GenerationResult> fresh = tracker.track("t");
+        assertEquals(1, tracker.pendingCount());
+        fresh.cancel(true);
+    }
+}
@@ -48,6 +48,26 @@ class MusicServiceFactoryTest {
         assertTrue(strategy instanceof ArtistSeedRecommendationStrategy);
     }
 
+    @Test
+    void createsHybridRecommendationStrategyForHybridMode() {
+        MusicServiceFactory factory = createFactory();
+
+        RecommendationStrategy strategy =
+                factory.createRecommendationStrategy(MusicServiceFactory.RecommendationMode.HYBRID);
+
+        assertTrue(strategy instanceof HybridRecommendationStrategy);
+    }
+
+    @Test
+    void createsLocalIndexRecommendationStrategyForLocalMode() {
+        MusicServiceFactory factory = createFactory();
+
+        RecommendationStrategy strategy =
+                factory.createRecommendationStrategy(MusicServiceFactory.RecommendationMode.LOCAL);
+
+        assertTrue(strategy instanceof LocalIndexRecommendationStrategy);
+    }
+
     @Test
     void createsInstrumentalGenerationStrategyForInstrumentalMode() {
         MusicServiceFactory factory = createFactory();
@@ -0,0 +1,60 @@
+package org.example.service;
+
+import org.example.model.APIClient;
+import org.example.model.cache.DiskCache;
+import org.example.model.cache.TrackIndex;
+import org.example.model.cache.TrackListCodec;
+import org.example.model.domain.Track;
+import org.example.model.domain.UserQuery;
+import org.example.model.http.Validators;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotifyServiceLocalStoresTest {
+
+    @TempDir
+    Path dir;
+
+    private static Track track(String id, String name, String artist) {
+        return new Track().setId(id).setName(name).setArtist(artist);
+    }
+
+    @Test
+    void attachingThePersistedIndexKeepsTracksIndexedBeforeIt() {
+        SpotifyService service = new SpotifyService(APIClient.getInstance());
+        service.getTrackIndex().add(track("early", "Around the World", "Daft Punk"));
+
+        TrackIndex persisted = new TrackIndex();
+        persisted.add(track("old", "Harder Better Faster Stronger", "Daft Punk"));
+        service.setTrackIndex(persisted);
+
+        assertSame(persisted, service.getTrackIndex());
+        assertEquals(2, persisted.search("daft punk", 10).size());
+    }
+
+    @Test
+    void diskCacheHitsAreIndexedAndCachedByTrackId() throws Exception {
+        SpotifyService service = new SpotifyService(APIClient.getInstance());
+        try (DiskCache disk = new DiskCache(dir, 64 * 1024, 4, 0)) {
+            disk.put("lofi study|0|10", TrackListCodec.encode(List.of(track("t1", "Snowman", "Lofi Kid")),
+                    Validators.of("\"e1\"", null, -1, 0)), 60_000);
+            service.setDiskCache(disk);
+
+            List<Track> tracks = service.searchTracksAsync(new UserQuery().setText("Lofi  Study"))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of("t1"), tracks.stream().map(Track::getId).toList());
+            assertEquals(1, service.getTrackIndex().search("snowman", 10).size());
+            // answered from the track cache, without a lookup request
+            Map<String, Track> byId = service.getTracksAsync(List.of("t1")).get(5, TimeUnit.SECONDS);
+            assertEquals("Snowman", byId.get("t1").getName());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import org.example.model.APIClient;
 import org.example.model.domain.Track;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,4 +54,61 @@ class SpotifyServiceParsingTest {
         assertEquals("Test Album", t.getAlbum());
         assertEquals("https://example.com/preview.mp3", t.getPreviewUrl());
     }
+
+    @Test
+    void streamingParserSkipsUnknownFieldsAndUsesFirstArtist() throws Exception {
+        SpotifyService service = new SpotifyService(APIClient.getInstance());
+
+        String json = """
+            {
+              "tracks": {
+                "href": "https://api.spotify.com/v1/search",
+                "items": [
+                  {
+                    "available_markets": ["US", "GB"],
+                    "album": { "images": [ { "url": "x" } ], "name": "Album A" },
+                    "artists": [ { "name": "First" }, { "name": "Second" } ],
+                    "id": "a1",
+                    "name": "Song A",
+                    "preview_url": null
+                  },
+                  null
+                ],
+                "total": 1
+              },
+              "artists": { "items": [] }
+            }
+            """;
+
+        List<Track> tracks = service.parseTracksFromSearch(new StringReader(json));
+
+        assertEquals(1, tracks.size());
+        Track t = tracks.get(0);
+        assertEquals("a1", t.getId());
+        assertEquals("Song A", t.getName());
+        assertEquals("First", t.getArtist());
+        assertEquals("Album A", t.getAlbum());
+        assertNull(t.getPreviewUrl());
+    }
+
+    @Test
+    void lookupParserSkipsNullEntriesForUnknownIds() throws IOException {
+        SpotifyService service = new SpotifyService(APIClient.getInstance());
+
+        String json = """
+            {
+              "tracks": [
+                { "id": "a1", "name": "One", "album": { "name": "A" }, "artists": [ { "name": "X" } ] },
+                null,
+                { "id": "b2", "name": "Two", "album": { "name": "B" }, "artists": [ { "name": "Y" } ] }
+              ]
+            }
+            """;
+
+        List<Track> tracks = service.parseTracksFromLookup(new StringReader(json));
+
+        assertEquals(2, tracks.size());
+        assertEquals("a1", tracks.get(0).getId());
+        assertEquals("Y", tracks.get(1).getArtist());
+    }
 }
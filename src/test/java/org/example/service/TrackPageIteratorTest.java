@@ -0,0 +1,90 @@
+package org.example.service;
+
+import org.example.model.domain.Track;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackPageIteratorTest {
+
+    /** Serves ids 0..total-1 and records which offsets were requested. */
+    static class FakePages implements TrackPageIterator.PageFetcher {
+        final int total;
+        final List<Integer> requestedOffsets = new ArrayList<>();
+
+        FakePages(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public CompletableFuture<List<Track>> fetch(int offset, int limit) {
+            requestedOffsets.add(offset);
+            List<Track> page = new ArrayList<>();
+            for (int i = offset; i < Math.min(total, offset + limit); i++) {
+                page.add(new Track().setId("id-" + i).setName("Track " + i));
+            }
+            return CompletableFuture.completedFuture(page);
+        }
+    }
+
+    @Test
+    void firstPagesAreRequestedTogetherThenOnePageAhead() {
+        FakePages pages = new FakePages(500);
+        TrackPageIterator it = new TrackPageIterator(pages, 50, 500, 3);
+
+        assertTrue(it.hasNext());
+        // three in parallel plus the prefetch of page 4 when page 1 was taken
+        assertEquals(List.of(0, 50, 100), pages.requestedOffsets.subList(0, 3));
+        assertTrue(pages.requestedOffsets.size() <= 4);
+
+        List<String> ids = new ArrayList<>();
+        it.forEachRemaining(t -> ids.add(t.getId()));
+
+        assertEquals(500, ids.size());
+        assertEquals("id-0", ids.get(0));
+        assertEquals("id-499", ids.get(499));
+    }
+
+    @Test
+    void stopsAtShortPageAndDeduplicatesById() {
+        TrackPageIterator.PageFetcher overlapping = (offset, limit) -> {
+            List<Track> page = new ArrayList<>();
+            // pages overlap by one track and the data runs out after 3 pages
+            int end = Math.min(offset + limit, 2 * limit + 3);
+            for (int i = Math.max(0, offset - 1); i < end; i++) {
+                page.add(new Track().setId("id-" + i));
+            }
+            return CompletableFuture.completedFuture(page.subList(0, Math.min(limit, page.size())));
+        };
+
+        List<String> ids = new ArrayList<>();
+        new TrackPageIterator(overlapping, 10, 1000, 2).forEachRemaining(t -> ids.add(t.getId()));
+
+        assertEquals(ids.stream().distinct().count(), ids.size());
+        assertEquals("id-0", ids.get(0));
+        assertTrue(ids.size() < 30);
+    }
+
+    @Test
+    void respectsMaxTracks() {
+        List<Track> collected = new ArrayList<>();
+        new TrackPageIterator(new FakePages(500), 50, 120, 4).forEachRemaining(collected::add);
+
+        assertEquals(120, collected.size());
+    }
+
+    @Test
+    void pageFailureSurfacesAsUncheckedIOException() {
+        TrackPageIterator it = new TrackPageIterator(
+                (offset, limit) -> CompletableFuture.failedFuture(new IOException("HTTP 500")), 50, 500, 2);
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, it::hasNext);
+        assertEquals("HTTP 500", e.getCause().getMessage());
+    }
+}